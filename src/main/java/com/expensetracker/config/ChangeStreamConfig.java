@@ -0,0 +1,28 @@
+package com.expensetracker.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * MongoDB change stream configuration.
+ * Change streams require a replica set (Atlas, or a single-node replica set locally).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.change-streams.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChangeStreamConfig {
+
+    @Bean
+    public MessageListenerContainer messageListenerContainer(MongoTemplate mongoTemplate) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("change-stream-");
+        executor.setDaemon(true);
+        return new DefaultMessageListenerContainer(mongoTemplate, executor,
+                e -> log.warn("Change stream error: {}", e.getMessage()));
+    }
+}
@@ -0,0 +1,291 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.DailyRollup;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.model.SchedulerLease;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Idempotent startup migrations for documents written by older versions.
+ * Each step only matches documents still in the old shape, so reruns are no-ops.
+ */
+@Component
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DataMigrationRunner implements ApplicationRunner {
+
+    static final String EXPENSE_TEXT_INDEX = "idx_expense_user_text";
+    static final String REBUILD_ROLLUPS_OPTION = "rebuild-rollups";
+    // Left-prefixes of the (userId, expenseDate, _id) and (userId, categoryId, expenseDate, _id) indexes
+    static final List<String> REDUNDANT_EXPENSE_INDEXES = List.of("idx_expense_user_date", "idx_expense_user_category");
+    static final String ROLLUP_BACKFILL_LEASE = "rollup-backfill";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration rollupBackfillLease;
+
+    public DataMigrationRunner(MongoTemplate mongoTemplate,
+                               ExpenseRepository expenseRepository,
+                               ExpenseRollupService expenseRollupService,
+                               @Value("${app.migrations.rollup-backfill-lease:1h}") Duration rollupBackfillLease) {
+        this.mongoTemplate = mongoTemplate;
+        this.expenseRepository = expenseRepository;
+        this.expenseRollupService = expenseRollupService;
+        this.rollupBackfillLease = rollupBackfillLease;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        runStep("amount conversion", this::convertStringAmountsToDecimal128);
+        runStep("budget amount conversion", this::convertBudgetAmountsToDecimal128);
+        runStep("version initialization", this::initializeExpenseVersions);
+        runStep("text index", this::ensureExpenseTextIndex);
+        runStep("redundant index removal", this::dropRedundantExpenseIndexes);
+        runStep("search term backfill", this::backfillSearchTerms);
+        runStep("recurring schedule backfill", this::backfillRecurringSchedules);
+        runStep("rollup backfill", () -> backfillRollups(args.containsOption(REBUILD_ROLLUPS_OPTION)));
+    }
+
+    private void runStep(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.warn("Data migration step '{}' failed: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Amounts used to be stored as strings, which sort and compare lexicographically.
+     */
+    private void convertStringAmountsToDecimal128() {
+        long converted = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("amount").type(BsonType.STRING.getValue())),
+                AggregationUpdate.update()
+                        .set("amount").toValue(ConvertOperators.ToDecimal.toDecimal("$amount")),
+                Expense.class).getModifiedCount();
+        if (converted > 0) {
+            log.info("Converted {} expense amounts to Decimal128", converted);
+        }
+    }
+
+    /**
+     * Budget amounts are read as {@link com.expensetracker.model.Money}, which is stored as
+     * Decimal128; older documents hold strings, which also break the alert threshold query.
+     */
+    private void convertBudgetAmountsToDecimal128() {
+        for (String field : List.of("budgetAmount", "spentAmount", "alertThreshold")) {
+            long converted = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where(field).type(BsonType.STRING.getValue())),
+                    AggregationUpdate.update()
+                            .set(field).toValue(ConvertOperators.ToDecimal.toDecimal("$" + field)),
+                    Budget.class).getModifiedCount();
+            if (converted > 0) {
+                log.info("Converted {} budget {} values to Decimal128", converted, field);
+            }
+        }
+    }
+
+    /**
+     * Expenses written before optimistic locking have no version, which would make
+     * the repository treat them as new on save.
+     */
+    private void initializeExpenseVersions() {
+        long initialized = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                Expense.class).getModifiedCount();
+        if (initialized > 0) {
+            log.info("Initialized version on {} expenses", initialized);
+        }
+    }
+
+    /**
+     * Text index over title, description and notes, prefixed by userId so every search is
+     * confined to one user's entries. Declared here because annotations cannot set weights.
+     */
+    private void ensureExpenseTextIndex() {
+        mongoTemplate.indexOps(Expense.class).ensureIndex(new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return new Document("userId", 1)
+                        .append("title", "text")
+                        .append("description", "text")
+                        .append("notes", "text");
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return new Document("name", EXPENSE_TEXT_INDEX)
+                        .append("weights", new Document("title", 5).append("description", 2).append("notes", 1))
+                        .append("default_language", "english");
+            }
+        });
+    }
+
+    /**
+     * Indexes that are a left-prefix of another index serve no query the longer one cannot,
+     * but every expense write still pays to maintain them.
+     */
+    private void dropRedundantExpenseIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Expense.class);
+        Set<String> existing = indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+        for (String name : REDUNDANT_EXPENSE_INDEXES) {
+            if (existing.contains(name)) {
+                indexOps.dropIndex(name);
+                log.info("Dropped redundant expense index {}", name);
+            }
+        }
+    }
+
+    /**
+     * Expenses written before prefix search have no search terms.
+     */
+    private void backfillSearchTerms() {
+        Query query = Query.query(Criteria.where("searchTerms").exists(false));
+        query.fields().include("title").include("description").include("notes");
+        long backfilled = inBatches(query, expenseRepository::updateSearchTerms);
+        if (backfilled > 0) {
+            log.info("Backfilled search terms on {} expenses", backfilled);
+        }
+    }
+
+    /**
+     * Recurring expenses written before the scheduler existed have no next due date.
+     * They are scheduled from today on rather than back-filling past occurrences.
+     */
+    private void backfillRecurringSchedules() {
+        Query query = Query.query(Criteria.where("recurring").is(true)
+                .and("nextDueDate").exists(false)
+                .and("recurringTemplateId").exists(false));
+        query.fields().include("userId").include("recurring").include("recurringFrequency").include("expenseDate");
+        LocalDate today = LocalDate.now();
+        long scheduled = inBatches(query, batch -> expenseRepository.updateSchedules(batch, today));
+        if (scheduled > 0) {
+            log.info("Scheduled {} existing recurring expenses", scheduled);
+        }
+    }
+
+    private long inBatches(Query query, Consumer<List<Expense>> action) {
+        long processed = 0;
+        List<Expense> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        try (Stream<Expense> expenses = mongoTemplate.stream(query.cursorBatchSize(BACKFILL_BATCH_SIZE), Expense.class)) {
+            Iterator<Expense> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BACKFILL_BATCH_SIZE || !iterator.hasNext()) {
+                    action.accept(batch);
+                    processed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Rollups are only kept current by writes, so expenses written before they existed are
+     * backfilled once. Starting with {@code --rebuild-rollups} recomputes them all, which
+     * repairs any drift.
+     * <p>
+     * The backfill runs in the background so startup does not wait for it, under a lease
+     * so only one node runs it at a time. Its completion is recorded on the lease, so
+     * later restarts skip it unless a rebuild is asked for; a failed run releases the
+     * lease and is retried on the next start.
+     */
+    private void backfillRollups(boolean rebuild) {
+        boolean missing = !mongoTemplate.exists(new Query(), MonthlyRollup.class)
+                || !mongoTemplate.exists(new Query(), DailyRollup.class);
+        if (!rebuild && !(missing && mongoTemplate.exists(new Query(), Expense.class))) {
+            return;
+        }
+        if (!acquireRollupBackfillLease(rebuild)) {
+            log.info("Rollup backfill already done or running on another node");
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("rollup-backfill-");
+        executor.setDaemon(true);
+        executor.execute(() -> {
+            boolean completed = false;
+            try {
+                expenseRollupService.rebuildAll();
+                completed = true;
+            } catch (RuntimeException e) {
+                log.warn("Rollup backfill failed: {}", e.getMessage());
+            } finally {
+                releaseRollupBackfillLease(completed);
+            }
+        });
+    }
+
+    /**
+     * Lease the backfill unless another node holds it or, for a plain backfill, it has
+     * already completed.
+     */
+    private boolean acquireRollupBackfillLease(boolean rebuild) {
+        Instant now = Instant.now();
+        Criteria criteria = Criteria.where("_id").is(ROLLUP_BACKFILL_LEASE).and("leaseExpiresAt").lt(now);
+        if (!rebuild) {
+            criteria.and("lastCompletedAt").exists(false);
+        }
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("leaseExpiresAt", now.plus(rollupBackfillLease));
+        try {
+            mongoTemplate.findAndModify(Query.query(criteria), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SchedulerLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The lease document exists and is held or completed, so the upsert collided with it
+            return false;
+        }
+    }
+
+    private void releaseRollupBackfillLease(boolean completed) {
+        Update update = new Update().set("leaseExpiresAt", Instant.now());
+        if (completed) {
+            update.set("lastCompletedAt", Instant.now());
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(ROLLUP_BACKFILL_LEASE)
+                .and("owner").is(instanceId)), update, SchedulerLease.class);
+    }
+}
@@ -0,0 +1,344 @@
+package com.expensetracker.config;
+
+import com.expensetracker.dto.response.ApiErrorResponse;
+import com.expensetracker.model.IdempotencyRecord;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import com.expensetracker.service.idempotency.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Makes POST and PATCH requests carrying an {@code Idempotency-Key} header safe to retry.
+ *
+ * The first request with a key runs normally and its response is stored; repeats with
+ * the same key and the same method, path and body replay that response, marked with
+ * {@code Idempotent-Replayed: true}, without reaching the controller. Reusing a key for
+ * a different request is rejected with 422; a repeat arriving while the first request
+ * is still running waits for it on this node, or gets 409 if it runs elsewhere.
+ * Server errors are not stored, so the request can be retried with the same key.
+ * Keys are scoped to the authenticated user.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String HEADER_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+    private final Duration lockTimeout;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${app.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+                             @Value("${app.idempotency.lock-timeout:30s}") Duration lockTimeout) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 1);
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String userId = currentUserId();
+        if (userId == null) {
+            // unauthenticated requests are rejected further down the chain
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER_IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    HEADER_IDEMPOTENCY_KEY + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Requests with an " + HEADER_IDEMPOTENCY_KEY + " are limited to " + maxBodyBytes + " bytes");
+            return;
+        }
+
+        String storageKey = userId + ":" + key;
+        String requestHash = fingerprint(request, body);
+        if (!tryLock(storageKey)) {
+            writeInProgress(request, response);
+            return;
+        }
+        try {
+            Optional<IdempotencyRecord> existing = idempotencyService.find(storageKey);
+            if (existing.isPresent()) {
+                respondWithExisting(request, response, existing.get(), requestHash);
+                return;
+            }
+
+            Optional<IdempotencyRecord> claimed = idempotencyService.begin(storageKey, requestHash);
+            if (claimed.isEmpty()) {
+                // another node claimed the key between our read and insert
+                existing = idempotencyService.find(storageKey);
+                if (existing.isPresent()) {
+                    respondWithExisting(request, response, existing.get(), requestHash);
+                } else {
+                    writeInProgress(request, response);
+                }
+                return;
+            }
+
+            execute(new CachedBodyRequest(request, body), response, filterChain, claimed.get());
+        } finally {
+            idempotencyService.unlock(storageKey);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain, IdempotencyRecord record) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+            if (cachingResponse.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                stored = store(record, cachingResponse);
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(record);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * A failure to store does not fail the request that already succeeded; the key is
+     * released instead, so a retry runs the request again. A claim that expired while the
+     * request ran is left alone: the key may already belong to a retry.
+     */
+    private boolean store(IdempotencyRecord record, ContentCachingResponseWrapper response) {
+        record.setResponseStatus(response.getStatus());
+        record.setContentType(response.getContentType());
+        record.setLocation(response.getHeader(HttpHeaders.LOCATION));
+        record.setEtag(response.getHeader(HttpHeaders.ETAG));
+        record.setResponseBody(response.getContentAsByteArray());
+        try {
+            if (!idempotencyService.complete(record)) {
+                log.warn("Idempotency key {} expired before its response could be stored", record.getId());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to store response for idempotency key {}: {}", record.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void respondWithExisting(HttpServletRequest request, HttpServletResponse response,
+                                     IdempotencyRecord record, String requestHash) throws IOException {
+        if (!record.getRequestHash().equals(requestHash)) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER_IDEMPOTENCY_KEY + " was already used for a different request");
+            return;
+        }
+        if (!record.isCompleted()) {
+            writeInProgress(request, response);
+            return;
+        }
+
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(HEADER_REPLAYED, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.getLocation());
+        }
+        if (record.getEtag() != null) {
+            response.setHeader(HttpHeaders.ETAG, record.getEtag());
+        }
+        byte[] body = record.getResponseBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private boolean tryLock(String storageKey) {
+        try {
+            return idempotencyService.tryLock(storageKey, lockTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writeInProgress(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        writeError(request, response, HttpStatus.CONFLICT,
+                "A request with this " + HEADER_IDEMPOTENCY_KEY + " is still being processed");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response,
+                            HttpStatus status, String message) throws IOException {
+        ApiErrorResponse errorResponse = ApiErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(status.value());
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    /**
+     * Digest of what the request would do, to detect a key reused for another request.
+     */
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.update(request.getMethod().getBytes(StandardCharsets.US_ASCII));
+        sha256.update((byte) ' ');
+        sha256.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        if (request.getQueryString() != null) {
+            sha256.update((byte) '?');
+            sha256.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+        }
+        sha256.update((byte) '\n');
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256.digest(body));
+    }
+
+    private static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.POST.matches(method) && !HttpMethod.PATCH.matches(method)) {
+            return true;
+        }
+        // multipart uploads are too large to buffer and fingerprint
+        String contentType = request.getContentType();
+        return request.getHeader(HEADER_IDEMPOTENCY_KEY) == null
+                || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    /**
+     * Serves the already-read body to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.expensetracker.config;
 
+import com.expensetracker.model.Role;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import com.expensetracker.service.auth.TokenRevocationService;
+import com.expensetracker.service.auth.TokenVersionService;
 import com.expensetracker.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,8 +15,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,6 +25,8 @@ import java.io.IOException;
 /**
  * JWT Authentication Filter.
  * Intercepts requests, extracts JWT token, validates it, and sets authentication.
+ * The principal is built from the token's identity claims; the token version and
+ * revocation checks are served from memory, so the normal path does not touch Mongo.
  */
 @Component
 @RequiredArgsConstructor
@@ -29,7 +34,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -40,23 +46,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
+            if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                Claims claims = jwtUtil.resolveClaims(jwt);
+                AuthenticatedUser principal = claims != null ? toPrincipal(claims) : null;
                 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken = 
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                        log.debug("Set authentication for user: {}", username);
-                    }
+                if (principal != null
+                        && tokenVersionService.isCurrent(principal.getId(), principal.getTokenVersion())
+                        && !tokenRevocationService.isRevoked(claims.getId())) {
+                    UsernamePasswordAuthenticationToken authToken = 
+                            new UsernamePasswordAuthenticationToken(
+                                    principal,
+                                    null,
+                                    principal.getAuthorities()
+                            );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    log.debug("Set authentication for user: {}", principal.getUsername());
                 }
             }
         } catch (Exception e) {
@@ -66,6 +71,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Build the request principal from identity claims.
+     * Tokens issued without these claims, and refresh tokens, are not accepted.
+     */
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        if (JwtUtil.TOKEN_TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TOKEN_TYPE, String.class))) {
+            return null;
+        }
+        String userId = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+        Number version = claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || role == null || version == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role), version.longValue());
+    }
+
     /**
      * Extract JWT token from Authorization header.
      */
@@ -1,12 +1,49 @@
 package com.expensetracker.config;
 
+import com.expensetracker.model.Money;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
 
 /**
- * MongoDB configuration for enabling auditing (CreatedDate, LastModifiedDate).
+ * MongoDB configuration for enabling auditing (CreatedDate, LastModifiedDate)
+ * and storing {@link Money} as Decimal128.
  */
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                MoneyToDecimal128Converter.INSTANCE,
+                Decimal128ToMoneyConverter.INSTANCE));
+    }
+
+    @WritingConverter
+    enum MoneyToDecimal128Converter implements Converter<Money, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(Money source) {
+            return source.toDecimal128();
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToMoneyConverter implements Converter<Decimal128, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(Decimal128 source) {
+            return Money.ofMinorUnits(Money.toMinorUnits(source));
+        }
+    }
 }
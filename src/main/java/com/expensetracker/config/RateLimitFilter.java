@@ -0,0 +1,149 @@
+package com.expensetracker.config;
+
+import com.expensetracker.dto.response.ApiErrorResponse;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting per authenticated user, or per client IP for anonymous requests.
+ *
+ * Buckets live in a size-bounded Caffeine map and use bucket4j's lock-free
+ * synchronization, so concurrent requests never block each other. Expensive
+ * endpoints consume more tokens than cheap reads. Every response carries
+ * RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset headers.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String HEADER_LIMIT = "RateLimit-Limit";
+    private static final String HEADER_REMAINING = "RateLimit-Remaining";
+    private static final String HEADER_RESET = "RateLimit-Reset";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Bucket> buckets;
+    private final long capacity;
+    private final String limitHeaderValue;
+
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           @Value("${app.rate-limit.requests-per-minute:60}") long requestsPerMinute,
+                           @Value("${app.rate-limit.max-tracked-clients:100000}") long maxTrackedClients) {
+        this.objectMapper = objectMapper;
+        this.capacity = requestsPerMinute;
+        this.limitHeaderValue = Long.toString(requestsPerMinute);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedClients)
+                .expireAfterAccess(Duration.ofMinutes(2))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Bucket bucket = buckets.get(resolveClientKey(request), key -> newBucket());
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(costOf(request));
+
+        response.setHeader(HEADER_LIMIT, limitHeaderValue);
+        response.setHeader(HEADER_REMAINING, Long.toString(probe.getRemainingTokens()));
+        response.setHeader(HEADER_RESET, Long.toString(toSeconds(probe.getNanosToWaitForReset())));
+
+        if (probe.isConsumed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = Math.max(1, toSeconds(probe.getNanosToWaitForRefill()));
+        log.warn("Rate limit exceeded for {} on {}", resolveClientKey(request), request.getRequestURI());
+
+        ApiErrorResponse errorResponse = ApiErrorResponse.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Rate Limit Exceeded")
+                .message("Too many requests. Please retry after " + retryAfter + " seconds.")
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    /**
+     * Token cost of a request. Aggregations and bulk transfers are charged more than
+     * single-document reads; credential endpoints are charged more to slow brute forcing.
+     */
+    static long costOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/api/expenses/export") || path.startsWith("/api/expenses/import")) {
+            return 10;
+        }
+        if (path.startsWith("/api/analytics/")) {
+            return 5;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return 3;
+        }
+        if (path.startsWith("/api/expenses/batch") || path.startsWith("/api/expenses/search")) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private Bucket newBucket() {
+        return Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(capacity)
+                        .refillGreedy(capacity, Duration.ofMinutes(1))
+                        .build())
+                .build();
+    }
+
+    private static String resolveClientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/swagger-ui") ||
+               path.startsWith("/api-docs") ||
+               path.startsWith("/v3/api-docs") ||
+               path.startsWith("/actuator/");
+    }
+}
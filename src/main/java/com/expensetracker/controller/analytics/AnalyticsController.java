@@ -2,21 +2,98 @@ package com.expensetracker.controller.analytics;
 
 import com.expensetracker.dto.response.ApiResponse;
 import com.expensetracker.dto.response.AnalyticsSummaryResponse;
+import com.expensetracker.dto.response.CategoryWiseSpendingResponse;
+import com.expensetracker.dto.response.ExpenseTrendResponse;
+import com.expensetracker.dto.response.MonthlySummaryResponse;
+import com.expensetracker.dto.response.YearlyReportResponse;
 import com.expensetracker.service.analytics.AnalyticsService;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.util.ETagUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final DataVersionService dataVersionService;
 
     @GetMapping("/summary")
-    public ResponseEntity<ApiResponse<AnalyticsSummaryResponse>> getSummary() {
+    public ResponseEntity<ApiResponse<AnalyticsSummaryResponse>> getSummary(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
         AnalyticsSummaryResponse response = analyticsService.getSummary();
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/monthly/{month}")
+    public ResponseEntity<ApiResponse<MonthlySummaryResponse>> getMonthlySummary(
+            @PathVariable String month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
+        MonthlySummaryResponse response = analyticsService.getMonthlySummary(month);
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/yearly/{year}")
+    public ResponseEntity<ApiResponse<YearlyReportResponse>> getYearlyReport(
+            @PathVariable int year,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // The current year's averages cover the months elapsed so far, which change without a write
+        String eTag = year == Year.now().getValue()
+                ? dataVersionService.currentETag(YearMonth.now().toString())
+                : dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
+        YearlyReportResponse response = analyticsService.getYearlyReport(year);
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/trends")
+    public ResponseEntity<ApiResponse<ExpenseTrendResponse>> getTrend(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        // Without an endDate the range moves with the current day
+        if (endDate != null && ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
+        ExpenseTrendResponse response = analyticsService.getTrend(startDate, endDate);
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<ApiResponse<CategoryWiseSpendingResponse>> getCategoryWiseSpending(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
+        CategoryWiseSpendingResponse response = analyticsService.getCategoryWiseSpending(startDate, endDate);
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
     }
 }
@@ -1,12 +1,14 @@
 package com.expensetracker.controller.auth;
 
 import com.expensetracker.dto.request.LoginRequest;
+import com.expensetracker.dto.request.RefreshTokenRequest;
 import com.expensetracker.dto.request.RegisterRequest;
 import com.expensetracker.dto.response.ApiResponse;
 import com.expensetracker.dto.response.AuthResponse;
 import com.expensetracker.service.auth.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,4 +32,21 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refreshToken(request);
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", response));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @Valid @RequestBody RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.ok(ApiResponse.success("Logged out successfully", null));
+    }
 }
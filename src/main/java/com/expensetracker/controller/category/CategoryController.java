@@ -1,11 +1,17 @@
 package com.expensetracker.controller.category;
 
 import com.expensetracker.dto.request.CreateCategoryRequest;
+import com.expensetracker.dto.request.MergeCategoryRequest;
+import com.expensetracker.dto.request.UpdateCategoryRequest;
 import com.expensetracker.dto.response.ApiResponse;
 import com.expensetracker.dto.response.CategoryResponse;
+import com.expensetracker.dto.response.CategorySyncJobResponse;
 import com.expensetracker.service.category.CategoryService;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.util.ETagUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +24,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<CategoryResponse>> createCategory(@Valid @RequestBody CreateCategoryRequest request) {
@@ -27,8 +34,57 @@ public class CategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories() {
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
         List<CategoryResponse> response = categoryService.getAllCategories();
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<CategoryResponse>> getCategory(@PathVariable String id) {
+        CategoryResponse response = categoryService.getCategoryById(id);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<CategoryResponse>> updateCategory(
+            @PathVariable String id,
+            @Valid @RequestBody UpdateCategoryRequest request) {
+        CategoryService.CategoryUpdateResult result = categoryService.updateCategory(id, request);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.syncJob() != null) {
+            // Expenses are updated in the background; the job can be polled for progress
+            response.header(HttpHeaders.LOCATION, "/api/categories/jobs/" + result.syncJob().getId());
+        }
+        return response.body(ApiResponse.success("Category updated successfully", result.category()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<CategorySyncJobResponse>> deleteCategory(@PathVariable String id) {
+        CategorySyncJobResponse job = categoryService.deleteCategory(id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/categories/jobs/" + job.getId())
+                .body(ApiResponse.success("Category deleted; expenses are being updated", job));
+    }
+
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<ApiResponse<CategorySyncJobResponse>> mergeCategory(
+            @PathVariable String id,
+            @Valid @RequestBody MergeCategoryRequest request) {
+        CategorySyncJobResponse job = categoryService.mergeCategory(id, request.getTargetCategoryId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/categories/jobs/" + job.getId())
+                .body(ApiResponse.success("Category merged; expenses are being moved", job));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<CategorySyncJobResponse>> getSyncJob(@PathVariable String jobId) {
+        CategorySyncJobResponse response = categoryService.getSyncJob(jobId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 }
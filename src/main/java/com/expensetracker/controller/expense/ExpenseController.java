@@ -1,16 +1,33 @@
 package com.expensetracker.controller.expense;
 
+import com.expensetracker.dto.request.BatchExpenseRequest;
 import com.expensetracker.dto.request.CreateExpenseRequest;
+import com.expensetracker.dto.request.ExpenseFilterRequest;
+import com.expensetracker.dto.request.UpdateExpenseRequest;
 import com.expensetracker.dto.response.ApiResponse;
+import com.expensetracker.dto.response.BatchExpenseResponse;
 import com.expensetracker.dto.response.ExpenseResponse;
+import com.expensetracker.dto.response.ImportJobResponse;
+import com.expensetracker.dto.response.PagedResponse;
+import com.expensetracker.service.expense.ExpenseExportService;
+import com.expensetracker.service.expense.ExpenseImportService;
 import com.expensetracker.service.expense.ExpenseService;
+import com.expensetracker.service.expense.ExportFormat;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.util.AcceptEncodingUtils;
+import com.expensetracker.util.ETagUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -18,6 +35,9 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseExportService expenseExportService;
+    private final ExpenseImportService expenseImportService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<ExpenseResponse>> createExpense(@Valid @RequestBody CreateExpenseRequest request) {
@@ -26,18 +46,108 @@ public class ExpenseController {
                 .body(ApiResponse.success("Expense created successfully", response));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchExpenseResponse>> batchExpenses(@Valid @RequestBody BatchExpenseRequest request) {
+        BatchExpenseResponse response = expenseService.executeBatch(request);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getAllExpenses() {
-        List<ExpenseResponse> response = expenseService.getAllExpenses();
+    public ResponseEntity<ApiResponse<PagedResponse<ExpenseResponse>>> getExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = dataVersionService.currentETag();
+        if (ETagUtils.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return ETagUtils.notModified(eTag);
+        }
+        PagedResponse<ExpenseResponse> response = expenseService.getExpenses(cursor, limit, includeTotal, fields);
+        return ETagUtils.ok(eTag)
+                .body(ApiResponse.success(response));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<PagedResponse<ExpenseResponse>>> searchExpenses(
+            @ModelAttribute ExpenseFilterRequest filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String fields) {
+        PagedResponse<ExpenseResponse> response = expenseService.searchExpenses(filter, cursor, limit, fields);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/search/text")
+    public ResponseEntity<ApiResponse<PagedResponse<ExpenseResponse>>> textSearchExpenses(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String fields) {
+        PagedResponse<ExpenseResponse> response = expenseService.textSearchExpenses(q, cursor, limit, fields);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        boolean gzip = AcceptEncodingUtils.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = expenseExportService.export(exportFormat, from, to, gzip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses." + exportFormat.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImportJobResponse>> importExpenses(@RequestParam("file") MultipartFile file) {
+        ImportJobResponse response = expenseImportService.startImport(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/expenses/import/" + response.getId())
+                .body(ApiResponse.success("Import started", response));
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobResponse>> getImportJob(@PathVariable String jobId) {
+        ImportJobResponse response = expenseImportService.getImportJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ExpenseResponse>> getExpense(@PathVariable String id) {
+        ExpenseResponse response = expenseService.getExpenseById(id);
+        return ETagUtils.ok(ETagUtils.toETag(response.getVersion()))
+                .body(ApiResponse.success(response));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ExpenseResponse>> updateExpense(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateExpenseRequest request) {
-        ExpenseResponse response = expenseService.updateExpense(id, request);
-        return ResponseEntity.ok(ApiResponse.success("Expense updated successfully", response));
+        ExpenseResponse response = expenseService.updateExpense(id, request, ETagUtils.parseIfMatch(ifMatch));
+        return ETagUtils.ok(ETagUtils.toETag(response.getVersion()))
+                .body(ApiResponse.success("Expense updated successfully", response));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<ExpenseResponse>> patchExpense(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateExpenseRequest request) {
+        ExpenseResponse response = expenseService.patchExpense(id, request, ETagUtils.parseIfMatch(ifMatch));
+        return ETagUtils.ok(ETagUtils.toETag(response.getVersion()))
+                .body(ApiResponse.success("Expense updated successfully", response));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,51 @@
+package com.expensetracker.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of expense create, update and delete operations.
+ * Item payloads are validated individually so one bad item does not reject the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExpenseRequest {
+
+    public static final int MAX_OPERATIONS = 500;
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = MAX_OPERATIONS, message = "A batch must not exceed " + MAX_OPERATIONS + " operations")
+    private List<Operation> operations;
+
+    public enum OperationType {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+
+        private OperationType op;
+
+        // Target expense for UPDATE and DELETE
+        private String id;
+
+        // Payload for CREATE
+        private CreateExpenseRequest expense;
+
+        // Fields to change for UPDATE; null fields are left untouched
+        private UpdateExpenseRequest changes;
+    }
+}
@@ -20,7 +20,7 @@ public class CreateBudgetRequest {
 
     @NotNull(message = "Budget amount is required")
     @DecimalMin(value = "0.01", message = "Budget amount must be greater than 0")
-    @Digits(integer = 17, fraction = 2, message = "Budget amount format is invalid")
+    @Digits(integer = 16, fraction = 2, message = "Budget amount format is invalid")
     private BigDecimal budgetAmount;
 
     @NotNull(message = "Budget month is required")
@@ -28,7 +28,7 @@ public class CreateExpenseRequest {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    @Digits(integer = 17, fraction = 2, message = "Amount format is invalid")
+    @Digits(integer = 16, fraction = 2, message = "Amount format is invalid")
     private BigDecimal amount;
 
     @NotNull(message = "Expense type is required")
@@ -0,0 +1,20 @@
+package com.expensetracker.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for merging one category into another.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MergeCategoryRequest {
+
+    @NotBlank(message = "Target category id is required")
+    private String targetCategoryId;
+}
@@ -26,7 +26,7 @@ public class UpdateExpenseRequest {
     private String description;
 
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    @Digits(integer = 17, fraction = 2, message = "Amount format is invalid")
+    @Digits(integer = 16, fraction = 2, message = "Amount format is invalid")
     private BigDecimal amount;
 
     private ExpenseType expenseType;
@@ -0,0 +1,51 @@
+package com.expensetracker.dto.response;
+
+import com.expensetracker.dto.request.BatchExpenseRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch operation results, one entry per submitted operation in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExpenseResponse {
+
+    private List<ItemResult> results;
+    private int succeeded;
+    private int failed;
+
+    public enum ItemStatus {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        // The target was modified between being read and written, so the operation was not applied
+        CONFLICT,
+        FAILED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private BatchExpenseRequest.OperationType op;
+        private String id;
+        private ItemStatus status;
+        private String error;
+        private ExpenseResponse expense;
+
+        public boolean isSuccess() {
+            return status == ItemStatus.CREATED || status == ItemStatus.UPDATED || status == ItemStatus.DELETED;
+        }
+    }
+}
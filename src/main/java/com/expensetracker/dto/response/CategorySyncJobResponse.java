@@ -0,0 +1,32 @@
+package com.expensetracker.dto.response;
+
+import com.expensetracker.model.CategorySyncJob;
+import com.expensetracker.model.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO for category fan-out job status responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySyncJobResponse {
+
+    private String id;
+    private CategorySyncJob.Type type;
+    private String sourceCategoryId;
+    private String targetCategoryId;
+    private JobStatus status;
+    private long totalExpenses;
+    private long updatedExpenses;
+    private String failureReason;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+}
@@ -25,7 +25,7 @@ public class CategoryWiseSpendingResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CategorySpending {
-        private Long categoryId;
+        private String categoryId;
         private String categoryName;
         private String categoryColor;
         private String categoryIcon;
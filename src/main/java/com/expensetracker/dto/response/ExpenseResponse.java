@@ -1,6 +1,7 @@
 package com.expensetracker.dto.response;
 
 import com.expensetracker.model.ExpenseType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,7 +13,10 @@ import java.time.LocalDateTime;
 
 /**
  * DTO for expense responses.
+ * List endpoints may fill only the properties selected with {@code fields}; unset
+ * properties are left out of the JSON.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Data
 @Builder
 @NoArgsConstructor
@@ -29,8 +33,11 @@ public class ExpenseResponse {
     private String receiptUrl;
     private String receiptFilename;
     private String notes;
-    private boolean recurring;
+    private Boolean recurring;
     private String recurringFrequency;
+    private LocalDate nextDueDate;
+    private String recurringTemplateId;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,40 @@
+package com.expensetracker.dto.response;
+
+import com.expensetracker.model.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for bulk import job status responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+
+    private String id;
+    private String filename;
+    private JobStatus status;
+    private long processedRows;
+    private long importedRows;
+    private long failedRows;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private String failureReason;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -33,7 +33,7 @@ public class MonthlySummaryResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CategoryExpense {
-        private Long categoryId;
+        private String categoryId;
         private String categoryName;
         private String categoryColor;
         private BigDecimal amount;
@@ -9,6 +9,8 @@ import java.util.List;
 
 /**
  * Paginated response wrapper.
+ * Offset pages fill in page counts; cursor pages carry {@code nextCursor} and only
+ * report a total when one was requested.
  */
 @Data
 @Builder
@@ -19,12 +21,13 @@ public class PagedResponse<T> {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean first;
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
+    private String nextCursor;
 
     public static <T> PagedResponse<T> of(List<T> content, int page, int size, long totalElements) {
         int totalPages = (int) Math.ceil((double) totalElements / size);
@@ -40,4 +43,18 @@ public class PagedResponse<T> {
                 .hasPrevious(page > 0)
                 .build();
     }
+
+    public static <T> PagedResponse<T> ofCursor(List<T> content, int size, boolean first,
+                                                String nextCursor, Long totalElements) {
+        return PagedResponse.<T>builder()
+                .content(content)
+                .size(size)
+                .totalElements(totalElements)
+                .first(first)
+                .last(nextCursor == null)
+                .hasNext(nextCursor != null)
+                .hasPrevious(!first)
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
@@ -45,7 +45,7 @@ public class YearlyReportResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class TopCategory {
-        private Long categoryId;
+        private String categoryId;
         private String categoryName;
         private String categoryColor;
         private BigDecimal totalAmount;
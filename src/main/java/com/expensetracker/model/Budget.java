@@ -8,6 +8,8 @@ import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -32,15 +34,16 @@ public class Budget {
     @Id
     private String id;
 
-    private BigDecimal budgetAmount;
+    private Money budgetAmount;
 
     @Builder.Default
-    private BigDecimal spentAmount = BigDecimal.ZERO;
+    private Money spentAmount = Money.ZERO;
 
     @Indexed
     private YearMonth budgetMonth;
 
     @Builder.Default
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal alertThreshold = new BigDecimal("80.00"); // 80% by default
 
     @Builder.Default
@@ -58,16 +61,12 @@ public class Budget {
     private LocalDateTime updatedAt;
 
     // Business logic methods
-    public BigDecimal getRemainingBudget() {
-        return budgetAmount.subtract(spentAmount);
+    public Money getRemainingBudget() {
+        return budgetAmount.minus(spentAmount);
     }
 
     public double getUsagePercentage() {
-        if (budgetAmount.compareTo(BigDecimal.ZERO) == 0) {
-            return 0.0;
-        }
-        return spentAmount.divide(budgetAmount, 4, java.math.RoundingMode.HALF_UP)
-                .multiply(new BigDecimal("100")).doubleValue();
+        return spentAmount.percentOf(budgetAmount);
     }
 
     public boolean isOverBudget() {
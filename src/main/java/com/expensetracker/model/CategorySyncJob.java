@@ -0,0 +1,94 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Background job that propagates a category change into the denormalized
+ * category fields of the owner's expenses.
+ *
+ * Jobs are claimed with a lease, so a job abandoned by a crashed instance is
+ * picked up again once its lease expires, and a failed attempt is retried with
+ * exponential backoff. Every batch only touches expenses that
+ * are still stale, which makes rerunning a partially applied job safe.
+ */
+@Document(collection = "category_sync_jobs")
+@CompoundIndexes({
+    @CompoundIndex(name = "idx_category_sync_status_created", def = "{'status': 1, 'createdAt': 1}")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySyncJob {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    private Type type;
+
+    private String sourceCategoryId;
+
+    // Merge destination; only set for MERGE jobs
+    private String targetCategoryId;
+
+    @Builder.Default
+    private JobStatus status = JobStatus.PENDING;
+
+    private long totalExpenses;
+
+    private long updatedExpenses;
+
+    private int attempts;
+
+    // Earliest time a released job may be claimed again; backs off after each failure
+    private Instant nextAttemptAt;
+
+    private String failureReason;
+
+    private String leaseOwner;
+
+    private Instant leaseExpiresAt;
+
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant completedAt;
+
+    // Only set once the job has finished, so pending jobs never expire
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public enum Type {
+        // Copy the category's current name, color and icon onto its expenses
+        UPDATE,
+        // Clear the category from expenses of a deleted category
+        DETACH,
+        // Move expenses from the source category to the target category
+        MERGE
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CategorySyncJob that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
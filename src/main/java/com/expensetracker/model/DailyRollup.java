@@ -0,0 +1,60 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Pre-aggregated spending of one user on one day.
+ *
+ * Kept current with atomic $inc updates by every expense write, so spending trends read
+ * one small document per day from the (userId, date) index instead of scanning expenses.
+ * Only expenses count; income is not part of spending.
+ */
+@Document(collection = "daily_rollups")
+@CompoundIndex(name = "idx_daily_rollup_user_date", def = "{'userId': 1, 'date': 1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRollup {
+
+    /**
+     * {@code userId:yyyy-MM-dd}
+     */
+    @Id
+    private String id;
+
+    private String userId;
+
+    private LocalDate date;
+
+    @Builder.Default
+    private Money totalExpenses = Money.ZERO;
+
+    private long expenseCount;
+
+    private Instant updatedAt;
+
+    public static String idOf(String userId, LocalDate date) {
+        return userId + ":" + date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailyRollup that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
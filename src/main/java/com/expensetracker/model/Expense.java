@@ -4,14 +4,18 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -20,8 +24,14 @@ import java.util.Objects;
  */
 @Document(collection = "expenses")
 @CompoundIndexes({
-    @CompoundIndex(name = "idx_expense_user_date", def = "{'userId': 1, 'expenseDate': -1}"),
-    @CompoundIndex(name = "idx_expense_user_category", def = "{'userId': 1, 'categoryId': 1}")
+    @CompoundIndex(name = "idx_expense_user_date_id", def = "{'userId': 1, 'expenseDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "idx_expense_user_category_date", def = "{'userId': 1, 'categoryId': 1, 'expenseDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "idx_expense_user_type_date", def = "{'userId': 1, 'expenseType': 1, 'expenseDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "idx_expense_user_search_terms", def = "{'userId': 1, 'searchTerms': 1}"),
+    @CompoundIndex(name = "idx_expense_recurring_due", def = "{'recurring': 1, 'recurringShard': 1, 'nextDueDate': 1}",
+            partialFilter = "{'recurring': true}"),
+    @CompoundIndex(name = "idx_expense_template_occurrence", def = "{'recurringTemplateId': 1, 'expenseDate': 1}",
+            unique = true, partialFilter = "{'recurringTemplateId': {'$exists': true}}")
 })
 @Getter
 @Setter
@@ -37,6 +47,8 @@ public class Expense {
 
     private String description;
 
+    // Stored as Decimal128 so range filters and aggregations compare numerically
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal amount;
 
     @Builder.Default
@@ -56,6 +68,14 @@ public class Expense {
 
     private String recurringFrequency; // DAILY, WEEKLY, MONTHLY, YEARLY
 
+    // Recurring templates only: date of the next occurrence to generate, and the
+    // scheduler shard derived from userId
+    private LocalDate nextDueDate;
+    private Integer recurringShard;
+
+    // Generated occurrences only: the template they were generated from
+    private String recurringTemplateId;
+
     @Indexed
     private String userId;
 
@@ -67,6 +87,14 @@ public class Expense {
     private String categoryColor;
     private String categoryIcon;
 
+    // Lowercase words of title, description and notes; vocabulary for prefix search.
+    // The weighted text index itself is created by DataMigrationRunner.
+    private List<String> searchTerms;
+
+    // Optimistic locking; also exposed as the ETag of the expense
+    @Version
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
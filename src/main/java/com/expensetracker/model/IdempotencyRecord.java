@@ -0,0 +1,66 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Outcome of a write request sent with an Idempotency-Key, keyed by user and key.
+ *
+ * A record is inserted before the request runs and completed with the response once it
+ * finishes, so retries with the same key replay the stored response instead of writing
+ * again. Records expire automatically; unfinished ones expire sooner so an abandoned
+ * request does not block its key for long.
+ */
+@Document(collection = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    /**
+     * {@code userId:key}
+     */
+    @Id
+    private String id;
+
+    /**
+     * SHA-256 of the method, path and body of the request that first used the key.
+     */
+    private String requestHash;
+
+    private boolean completed;
+
+    private int responseStatus;
+
+    private String contentType;
+
+    private String location;
+
+    private String etag;
+
+    private byte[] responseBody;
+
+    private Instant createdAt;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IdempotencyRecord that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
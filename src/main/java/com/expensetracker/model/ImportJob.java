@@ -0,0 +1,73 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Status and error report of a background CSV expense import.
+ * Counters are updated after every batch; finished jobs expire automatically.
+ */
+@Document(collection = "import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    private String filename;
+
+    @Builder.Default
+    private JobStatus status = JobStatus.PENDING;
+
+    private long processedRows;
+
+    private long importedRows;
+
+    private long failedRows;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    private String failureReason;
+
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant completedAt;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    /**
+     * A single rejected row, identified by its line in the uploaded file.
+     */
+    public record RowError(long line, String message) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImportJob importJob)) return false;
+        return Objects.equals(id, importJob.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.model;
+
+/**
+ * Lifecycle states of a background job.
+ */
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,154 @@
+package com.expensetracker.model;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of minor units (cents), so sums and
+ * comparisons are exact primitive arithmetic. Stored in Mongo as Decimal128 and converted
+ * to {@link BigDecimal} only at the DTO boundary.
+ *
+ * Rounding: amounts with more than {@link #SCALE} decimals are rounded HALF_EVEN on the
+ * way in; percentages are rounded HALF_UP to two decimals.
+ * Overflow: results outside the long range throw {@link ArithmeticException} rather than wrap.
+ *
+ * The static {@code long} helpers are for hot loops that must not allocate per row.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+    public static final Money ZERO = new Money(0);
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // Decimal128 (BID) layout of the high word
+    private static final long SIGN_BIT = 0x8000000000000000L;
+    private static final long LARGE_OR_SPECIAL = 0x6000000000000000L;
+    private static final long COEFFICIENT_HIGH_BITS = 0x0001FFFFFFFFFFFFL;
+    private static final int EXPONENT_SHIFT = 49;
+    private static final int EXPONENT_MASK = 0x3FFF;
+    private static final int EXPONENT_BIAS = 6176;
+
+    public static Money of(BigDecimal amount) {
+        return new Money(toMinorUnits(amount));
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    /**
+     * This amount as a percentage of {@code whole}; 0 when {@code whole} is zero.
+     */
+    public double percentOf(Money whole) {
+        return percentage(minorUnits, whole.minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits);
+    }
+
+    public Decimal128 toDecimal128() {
+        return new Decimal128(toBigDecimal());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, ROUNDING).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Decode a Decimal128 straight from its bits without allocating, for any value whose
+     * coefficient fits in a long. Other values, and NaN or infinity (which throw), take
+     * the BigDecimal route.
+     */
+    public static long toMinorUnits(Decimal128 value) {
+        long high = value.getHigh();
+        long low = value.getLow();
+        if ((high & LARGE_OR_SPECIAL) == LARGE_OR_SPECIAL || (high & COEFFICIENT_HIGH_BITS) != 0 || low < 0) {
+            return toMinorUnits(value.bigDecimalValue());
+        }
+        int exponent = (int) ((high >>> EXPONENT_SHIFT) & EXPONENT_MASK) - EXPONENT_BIAS;
+        int shift = exponent + SCALE;
+        long magnitude;
+        if (low == 0) {
+            magnitude = 0;
+        } else if (shift >= 0) {
+            if (shift >= POWERS_OF_TEN.length) {
+                throw new ArithmeticException("Amount out of range: " + value);
+            }
+            magnitude = Math.multiplyExact(low, POWERS_OF_TEN[shift]);
+        } else if (-shift < POWERS_OF_TEN.length) {
+            magnitude = divideHalfEven(low, POWERS_OF_TEN[-shift]);
+        } else {
+            return toMinorUnits(value.bigDecimalValue());
+        }
+        return (high & SIGN_BIT) != 0 ? -magnitude : magnitude;
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * {@code part} as a percentage of {@code whole}, rounded HALF_UP to two decimals;
+     * 0 when {@code whole} is zero.
+     */
+    public static double percentage(long part, long whole) {
+        if (whole == 0) {
+            return 0.0;
+        }
+        if (Math.abs(part) > Long.MAX_VALUE / 10_000) {
+            return toBigDecimal(part).multiply(BigDecimal.valueOf(100))
+                    .divide(toBigDecimal(whole), 2, RoundingMode.HALF_UP).doubleValue();
+        }
+        long scaled = part * 10_000;
+        long basisPoints = scaled / whole;
+        long remainder = Math.abs(scaled % whole);
+        if (remainder >= Math.abs(whole) - remainder) {
+            basisPoints += (scaled < 0) == (whole < 0) ? 1 : -1;
+        }
+        return basisPoints / 100.0;
+    }
+
+    private static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        long twice = remainder * 2;
+        if (twice > divisor || (twice == divisor && (quotient & 1) == 1)) {
+            quotient++;
+        }
+        return quotient;
+    }
+}
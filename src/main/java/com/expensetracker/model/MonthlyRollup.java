@@ -0,0 +1,98 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pre-aggregated totals of one user's expenses in one calendar month.
+ *
+ * Kept current with atomic $inc updates by every expense write, so monthly and yearly
+ * reports read a handful of these instead of scanning expenses. Category totals are
+ * keyed by category id; names are resolved at read time so renames need no update.
+ */
+@Document(collection = "monthly_rollups")
+@CompoundIndex(name = "idx_rollup_user_year_month", def = "{'userId': 1, 'year': 1, 'month': 1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyRollup {
+
+    /**
+     * Key under {@link #categories} for expenses without a category.
+     */
+    public static final String UNCATEGORIZED = "uncategorized";
+
+    /**
+     * {@code userId:yyyy-MM}
+     */
+    @Id
+    private String id;
+
+    private String userId;
+
+    private int year;
+
+    private int month;
+
+    @Builder.Default
+    private Money totalExpenses = Money.ZERO;
+
+    @Builder.Default
+    private Money totalIncome = Money.ZERO;
+
+    private long expenseCount;
+
+    private long incomeCount;
+
+    /**
+     * Expense (not income) totals per category id.
+     */
+    @Builder.Default
+    private Map<String, CategoryTotal> categories = new HashMap<>();
+
+    private Instant updatedAt;
+
+    public static String idOf(String userId, YearMonth month) {
+        return userId + ":" + month;
+    }
+
+    public YearMonth getYearMonth() {
+        return YearMonth.of(year, month);
+    }
+
+    /**
+     * Total and number of a month's expenses in one category.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotal {
+
+        private Money total = Money.ZERO;
+
+        private long count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MonthlyRollup that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
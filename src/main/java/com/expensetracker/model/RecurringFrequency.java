@@ -0,0 +1,48 @@
+package com.expensetracker.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Supported repeat intervals of recurring expenses.
+ */
+public enum RecurringFrequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS),
+    YEARLY(ChronoUnit.YEARS);
+
+    private final ChronoUnit unit;
+
+    RecurringFrequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * First occurrence strictly after {@code date}, counted in whole periods from
+     * {@code anchor} so that month-end dates do not drift (Jan 31, Feb 29, Mar 31, ...).
+     */
+    public LocalDate nextAfter(LocalDate anchor, LocalDate date) {
+        long periods = date.isBefore(anchor) ? 0 : unit.between(anchor, date);
+        LocalDate next = anchor.plus(periods, unit);
+        while (!next.isAfter(date)) {
+            next = anchor.plus(++periods, unit);
+        }
+        return next;
+    }
+
+    /**
+     * Parse a stored frequency case-insensitively; null for missing or unknown values.
+     */
+    public static RecurringFrequency from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
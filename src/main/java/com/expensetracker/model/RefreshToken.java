@@ -0,0 +1,54 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Issued refresh token, keyed by its JWT id.
+ * Tokens rotated from the same login share a family; presenting an already
+ * used token revokes the whole family.
+ */
+@Document(collection = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String familyId;
+
+    @Indexed
+    private String userId;
+
+    private Instant issuedAt;
+
+    private Instant usedAt;
+
+    @Builder.Default
+    private boolean revoked = false;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RefreshToken that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
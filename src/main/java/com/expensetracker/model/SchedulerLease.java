@@ -0,0 +1,42 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Time-bounded ownership of a unit of scheduled work, such as one recurring-expense shard.
+ * Whichever node holds an unexpired lease is the only one processing that unit.
+ */
+@Document(collection = "scheduler_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLease {
+
+    @Id
+    private String id;
+
+    private String owner;
+
+    private Instant leaseExpiresAt;
+
+    private Instant lastCompletedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SchedulerLease that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
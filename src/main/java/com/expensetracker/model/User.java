@@ -59,6 +59,10 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean credentialsNonExpired = true;
 
+    // Bumped on password change or account deletion to revoke issued tokens
+    @Builder.Default
+    private long tokenVersion = 0L;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -0,0 +1,43 @@
+package com.expensetracker.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Counter incremented by every write to a user's expenses or categories.
+ * Read endpoints derive their ETag from it, so an unchanged counter means unchanged data.
+ */
+@Document(collection = "user_data_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDataVersion {
+
+    /**
+     * The user's id.
+     */
+    @Id
+    private String id;
+
+    private long version;
+
+    private Instant updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserDataVersion that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.CategorySyncJob;
+import com.expensetracker.model.JobStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Repository for CategorySyncJob entity operations.
+ */
+@Repository
+public interface CategorySyncJobRepository extends MongoRepository<CategorySyncJob, String> {
+
+    Optional<CategorySyncJob> findByIdAndUserId(String id, String userId);
+
+    Optional<CategorySyncJob> findFirstByTypeAndSourceCategoryIdAndStatusIn(
+            CategorySyncJob.Type type, String sourceCategoryId, Collection<JobStatus> statuses);
+}
@@ -0,0 +1,12 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.DailyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for DailyRollup entity operations.
+ */
+@Repository
+public interface DailyRollupRepository extends MongoRepository<DailyRollup, String> {
+}
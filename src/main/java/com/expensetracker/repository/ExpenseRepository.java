@@ -9,6 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,11 +17,13 @@ import java.util.Optional;
  * Repository for Expense entity operations.
  */
 @Repository
-public interface ExpenseRepository extends MongoRepository<Expense, String> {
+public interface ExpenseRepository extends MongoRepository<Expense, String>, ExpenseRepositoryCustom {
 
     // Basic CRUD with user context
     Optional<Expense> findByIdAndUserId(String id, String userId);
 
+    List<Expense> findByIdInAndUserId(Collection<String> ids, String userId);
+
     Page<Expense> findByUserId(String userId, Pageable pageable);
 
     Page<Expense> findByUserIdAndCategoryId(String userId, String categoryId, Pageable pageable);
@@ -40,6 +43,8 @@ public interface ExpenseRepository extends MongoRepository<Expense, String> {
     @Query(value = "{ 'userId': ?0, 'expenseDate': { '$gte': ?1, '$lte': ?2 } }", count = true)
     long countByUserIdAndDateRange(String userId, LocalDate startDate, LocalDate endDate);
 
+    long countByUserId(String userId);
+
     // Check for existing expenses in category
     boolean existsByCategoryId(String categoryId);
 
@@ -0,0 +1,116 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.request.ExpenseFilterRequest;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.util.KeysetCursor;
+import com.expensetracker.util.TextSearchCursor;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Custom expense queries that need MongoTemplate rather than derived queries.
+ */
+public interface ExpenseRepositoryCustom {
+
+    /**
+     * Fetch up to {@code limit} expenses ordered by (expenseDate, _id) descending,
+     * starting strictly after the given cursor. No count query is issued.
+     * When {@code fields} is not null only those document fields are read.
+     */
+    List<Expense> findPage(String userId, KeysetCursor after, int limit, Collection<String> fields);
+
+    /**
+     * Same as {@link #findPage(String, KeysetCursor, int, Collection)}, restricted by whichever
+     * filters are set. The query is built and hinted so that it always runs as an
+     * index scan bounded by userId and the most selective equality filter.
+     */
+    List<Expense> findPage(String userId, ExpenseFilterRequest filter, KeysetCursor after, int limit,
+                           Collection<String> fields);
+
+    /**
+     * Stream a user's expenses in (expenseDate, _id) descending order from a server-side
+     * cursor. Either bound may be null. The caller must close the stream.
+     */
+    Stream<Expense> streamByUserIdAndDateRange(String userId, LocalDate from, LocalDate to);
+
+    /**
+     * Load the given expenses of the user by id, with only the fields that identify them,
+     * feed aggregates or derived fields: id, user, version, update time, amount, type, date,
+     * category id, text and recurrence settings.
+     */
+    Map<String, Expense> findSnapshots(String userId, Collection<String> ids);
+
+    /**
+     * Full-text search over title, description and notes using the user-prefixed text index,
+     * ordered by relevance and then _id descending, starting strictly after the cursor.
+     * {@code search} is a space-separated list of words, any of which may match.
+     * When {@code fields} is not null only those document fields are returned.
+     */
+    List<ScoredExpense> textSearch(String userId, String search, TextSearchCursor after, int limit,
+                                   Collection<String> fields);
+
+    /**
+     * Up to {@code limit} of the user's search terms starting with {@code prefix}, most
+     * frequent first. The prefix must be a {@link com.expensetracker.util.SearchTokenizer}
+     * token so it can be used as an anchored regex on the search-terms index.
+     */
+    List<String> findSearchTermsByPrefix(String userId, String prefix, int limit);
+
+    /**
+     * Store search terms derived from each expense's current title, description and notes.
+     * An expense whose text has changed since it was read is skipped; that writer stores its own.
+     */
+    void updateSearchTerms(Collection<Expense> expenses);
+
+    /**
+     * Recompute the recurring-template fields of each expense from its current recurrence
+     * settings, scheduling occurrences on or after {@code notBefore}. An expense whose
+     * recurrence settings changed since it was read is skipped.
+     */
+    void updateSchedules(Collection<Expense> expenses, LocalDate notBefore);
+
+    /**
+     * Recurring templates in one scheduler shard whose next occurrence is due on or before
+     * {@code today}, earliest first.
+     */
+    List<Expense> findDueTemplates(int shard, LocalDate today, int limit);
+
+    /**
+     * Sum and count of all of the user's expenses per (expenseType, categoryId), grouped by
+     * the database so only one row per pair is returned, however many expenses there are.
+     */
+    List<TypeCategoryTotal> sumByTypeAndCategory(String userId);
+
+    /**
+     * Exact total and count of one user's expenses of one type in one category;
+     * {@code categoryId} is null for uncategorized expenses.
+     */
+    record TypeCategoryTotal(ExpenseType expenseType, String categoryId, Money total, long count) {
+    }
+
+    /**
+     * Per-category statistics of the user's spending (expenses, not income) dated within
+     * {@code [from, to]}, either bound optional, computed by one $group in the database.
+     */
+    List<CategoryStats> spendingByCategory(String userId, LocalDate from, LocalDate to);
+
+    /**
+     * Spending statistics of one category; {@code categoryId} is null for uncategorized
+     * expenses. Display fields are the denormalized ones of an expense in the group.
+     */
+    record CategoryStats(String categoryId, String categoryName, String categoryColor, String categoryIcon,
+                         Money total, long count, Money smallest, Money largest) {
+    }
+
+    /**
+     * An expense with its text relevance score.
+     */
+    record ScoredExpense(Expense expense, double score) {
+    }
+}
@@ -0,0 +1,341 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.request.ExpenseFilterRequest;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.util.KeysetCursor;
+import com.expensetracker.util.RecurringSchedule;
+import com.expensetracker.util.SearchTokenizer;
+import com.expensetracker.util.TextSearchCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate-backed implementation of {@link ExpenseRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class ExpenseRepositoryImpl implements ExpenseRepositoryCustom {
+
+    static final String INDEX_USER_DATE_ID = "idx_expense_user_date_id";
+    static final String INDEX_USER_CATEGORY_DATE = "idx_expense_user_category_date";
+    static final String INDEX_USER_TYPE_DATE = "idx_expense_user_type_date";
+    static final String INDEX_RECURRING_DUE = "idx_expense_recurring_due";
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int PREFIX_SCAN_LIMIT = 1000;
+    private static final String SCORE_FIELD = "textScore";
+
+    static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "expenseDate")
+            .and(Sort.by(Sort.Direction.DESC, "_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Expense> findPage(String userId, KeysetCursor after, int limit, Collection<String> fields) {
+        return findPage(userId, new ExpenseFilterRequest(), after, limit, fields);
+    }
+
+    @Override
+    public List<Expense> findPage(String userId, ExpenseFilterRequest filter, KeysetCursor after, int limit,
+                                  Collection<String> fields) {
+        Query query = Query.query(filterCriteria(userId, filter, after))
+                .with(KEYSET_SORT)
+                .limit(limit)
+                .withHint(chooseIndex(filter));
+        if (fields != null) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    @Override
+    public Stream<Expense> streamByUserIdAndDateRange(String userId, LocalDate from, LocalDate to) {
+        ExpenseFilterRequest range = ExpenseFilterRequest.builder()
+                .startDate(from)
+                .endDate(to)
+                .build();
+        Query query = Query.query(filterCriteria(userId, range, null))
+                .with(KEYSET_SORT)
+                .withHint(INDEX_USER_DATE_ID)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Expense.class);
+    }
+
+    @Override
+    public Map<String, Expense> findSnapshots(String userId, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).and("userId").is(userId));
+        query.fields().include("_id", "userId", "version", "updatedAt", "amount", "expenseType", "expenseDate",
+                "categoryId", "title", "description", "notes", "recurring", "recurringFrequency", "recurringTemplateId");
+        return mongoTemplate.find(query, Expense.class).stream()
+                .collect(Collectors.toMap(Expense::getId, expense -> expense));
+    }
+
+    @Override
+    public List<ScoredExpense> textSearch(String userId, String search, TextSearchCursor after, int limit,
+                                          Collection<String> fields) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        // $text and the userId equality must share the first stage to use the compound text index
+        stages.add(context -> new Document("$match", new Document("userId", userId)
+                .append("$text", new Document("$search", search))));
+        stages.add(context -> new Document("$addFields",
+                new Document(SCORE_FIELD, new Document("$meta", "textScore"))));
+        if (after != null) {
+            stages.add(context -> new Document("$match", new Document("$or", List.of(
+                    new Document(SCORE_FIELD, new Document("$lt", after.score())),
+                    new Document(SCORE_FIELD, after.score()).append("_id", new Document("$lt", after.id()))))));
+        }
+        stages.add(context -> new Document("$sort", new Document(SCORE_FIELD, -1).append("_id", -1)));
+        stages.add(Aggregation.limit(limit));
+        if (fields != null) {
+            Document projection = new Document(SCORE_FIELD, 1);
+            fields.forEach(field -> projection.append(field, 1));
+            stages.add(context -> new Document("$project", projection));
+        }
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                        mongoTemplate.getCollectionName(Expense.class), Document.class)
+                .getMappedResults().stream()
+                .map(document -> new ScoredExpense(
+                        mongoTemplate.getConverter().read(Expense.class, document),
+                        document.getDouble(SCORE_FIELD)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> findSearchTermsByPrefix(String userId, String prefix, int limit) {
+        String startsWith = "^" + prefix;
+        // Bound the scan to the first documents found on the (userId, searchTerms) index
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId).and("searchTerms").regex(startsWith)),
+                Aggregation.limit(PREFIX_SCAN_LIMIT),
+                Aggregation.project("searchTerms"),
+                Aggregation.unwind("searchTerms"),
+                Aggregation.match(Criteria.where("searchTerms").regex(startsWith)),
+                Aggregation.group("searchTerms").count().as("count"),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "count")),
+                Aggregation.limit(limit));
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Expense.class), Document.class)
+                .getMappedResults().stream()
+                .map(document -> document.getString("_id"))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void updateSearchTerms(Collection<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+        for (Expense expense : expenses) {
+            Query unchanged = Query.query(Criteria.where("_id").is(expense.getId())
+                    .and("title").is(expense.getTitle())
+                    .and("description").is(expense.getDescription())
+                    .and("notes").is(expense.getNotes()));
+            bulk.updateOne(unchanged, new Update().set("searchTerms",
+                    SearchTokenizer.tokenize(expense.getTitle(), expense.getDescription(), expense.getNotes())));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void updateSchedules(Collection<Expense> expenses, LocalDate notBefore) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+        for (Expense expense : expenses) {
+            Query unchanged = Query.query(Criteria.where("_id").is(expense.getId())
+                    .and("recurring").is(expense.isRecurring())
+                    .and("recurringFrequency").is(expense.getRecurringFrequency())
+                    .and("expenseDate").is(expense.getExpenseDate()));
+            LocalDate nextDueDate = RecurringSchedule.nextDueDate(expense, notBefore);
+            Update update = nextDueDate != null
+                    ? new Update().set("nextDueDate", nextDueDate)
+                            .set("recurringShard", RecurringSchedule.shardOf(expense.getUserId()))
+                    : new Update().unset("nextDueDate").unset("recurringShard");
+            bulk.updateOne(unchanged, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<Expense> findDueTemplates(int shard, LocalDate today, int limit) {
+        Query query = Query.query(Criteria.where("recurring").is(true)
+                        .and("recurringShard").is(shard)
+                        .and("nextDueDate").lte(today))
+                .with(Sort.by(Sort.Direction.ASC, "nextDueDate"))
+                .limit(limit)
+                .withHint(INDEX_RECURRING_DUE);
+        return mongoTemplate.find(query, Expense.class);
+    }
+
+    @Override
+    public List<TypeCategoryTotal> sumByTypeAndCategory(String userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("userId").is(userId)),
+                        Aggregation.group("expenseType", "categoryId")
+                                .sum("amount").as("total")
+                                .count().as("count"))
+                .withOptions(AggregationOptions.builder().hint(INDEX_USER_DATE_ID).build());
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Expense.class), Document.class)
+                .getMappedResults().stream()
+                .map(document -> {
+                    Document group = document.get("_id", Document.class);
+                    String type = group.getString("expenseType");
+                    return new TypeCategoryTotal(
+                            type != null ? ExpenseType.valueOf(type) : null,
+                            group.getString("categoryId"),
+                            Money.ofMinorUnits(minorUnits(document.get("total"))),
+                            ((Number) document.get("count")).longValue());
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<CategoryStats> spendingByCategory(String userId, LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("expenseType").is(ExpenseType.EXPENSE)
+                .and("amount").ne(null);
+        if (from != null || to != null) {
+            Criteria date = criteria.and("expenseDate");
+            if (from != null) date.gte(from);
+            if (to != null) date.lte(to);
+        }
+        // (userId, expenseType, expenseDate) bounds the scan to the user's expenses in range
+        Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(criteria),
+                        Aggregation.group("categoryId")
+                                .sum("amount").as("total")
+                                .count().as("count")
+                                .min("amount").as("smallest")
+                                .max("amount").as("largest")
+                                .first("categoryName").as("categoryName")
+                                .first("categoryColor").as("categoryColor")
+                                .first("categoryIcon").as("categoryIcon"))
+                .withOptions(AggregationOptions.builder().hint(INDEX_USER_TYPE_DATE).build());
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Expense.class), Document.class)
+                .getMappedResults().stream()
+                .map(document -> new CategoryStats(
+                        document.getString("_id"),
+                        document.getString("categoryName"),
+                        document.getString("categoryColor"),
+                        document.getString("categoryIcon"),
+                        Money.ofMinorUnits(minorUnits(document.get("total"))),
+                        ((Number) document.get("count")).longValue(),
+                        Money.ofMinorUnits(minorUnits(document.get("smallest"))),
+                        Money.ofMinorUnits(minorUnits(document.get("largest")))))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Minor units of a $sum, $min or $max result: Decimal128 for stored amounts, or an
+     * integer 0 (or null) when no document in the group had an amount.
+     */
+    static long minorUnits(Object sum) {
+        if (sum instanceof Decimal128 decimal) {
+            return Money.toMinorUnits(decimal);
+        }
+        if (sum instanceof Number number) {
+            return Money.toMinorUnits(new BigDecimal(number.toString()));
+        }
+        return 0;
+    }
+
+    /**
+     * Build one criteria document with equality predicates first, then the sort-field
+     * range, then residual predicates that are evaluated on the index-bounded scan.
+     */
+    static Criteria filterCriteria(String userId, ExpenseFilterRequest filter, KeysetCursor after) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        List<Criteria> conjunctions = new ArrayList<>();
+
+        // Equality predicates matching the compound index prefixes
+        if (StringUtils.hasText(filter.getCategoryId())) {
+            criteria.and("categoryId").is(filter.getCategoryId());
+        }
+        if (filter.getExpenseType() != null) {
+            criteria.and("expenseType").is(filter.getExpenseType());
+        }
+
+        // Range on the sort field
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            Criteria dateRange = criteria.and("expenseDate");
+            if (filter.getStartDate() != null) dateRange.gte(filter.getStartDate());
+            if (filter.getEndDate() != null) dateRange.lte(filter.getEndDate());
+        }
+        if (after != null) {
+            conjunctions.add(new Criteria().orOperator(keysetCriteria(after)));
+        }
+
+        // Residual predicates
+        if (filter.getMinAmount() != null || filter.getMaxAmount() != null) {
+            Criteria amountRange = criteria.and("amount");
+            if (filter.getMinAmount() != null) amountRange.gte(filter.getMinAmount());
+            if (filter.getMaxAmount() != null) amountRange.lte(filter.getMaxAmount());
+        }
+        if (filter.getRecurring() != null) {
+            criteria.and("recurring").is(filter.getRecurring());
+        }
+        if (StringUtils.hasText(filter.getSearchTerm())) {
+            Pattern pattern = Pattern.compile(Pattern.quote(filter.getSearchTerm().trim()), Pattern.CASE_INSENSITIVE);
+            conjunctions.add(new Criteria().orOperator(
+                    Criteria.where("title").regex(pattern),
+                    Criteria.where("description").regex(pattern),
+                    Criteria.where("notes").regex(pattern)));
+        }
+
+        if (!conjunctions.isEmpty()) {
+            criteria.andOperator(conjunctions);
+        }
+        return criteria;
+    }
+
+    /**
+     * Pick the compound index whose equality prefix matches the filter; every
+     * candidate ends in (expenseDate, _id) so the keyset sort never needs a blocking sort.
+     */
+    static String chooseIndex(ExpenseFilterRequest filter) {
+        if (StringUtils.hasText(filter.getCategoryId())) {
+            return INDEX_USER_CATEGORY_DATE;
+        }
+        if (filter.getExpenseType() != null) {
+            return INDEX_USER_TYPE_DATE;
+        }
+        return INDEX_USER_DATE_ID;
+    }
+
+    /**
+     * Rows strictly after the cursor in (expenseDate desc, _id desc) order.
+     */
+    static Criteria[] keysetCriteria(KeysetCursor after) {
+        return new Criteria[] {
+                Criteria.where("expenseDate").lt(after.expenseDate()),
+                Criteria.where("expenseDate").is(after.expenseDate()).and("_id").lt(after.id())
+        };
+    }
+}
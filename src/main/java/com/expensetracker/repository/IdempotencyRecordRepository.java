@@ -0,0 +1,12 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for IdempotencyRecord entity operations.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
@@ -0,0 +1,16 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ImportJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for ImportJob entity operations.
+ */
+@Repository
+public interface ImportJobRepository extends MongoRepository<ImportJob, String> {
+
+    Optional<ImportJob> findByIdAndUserId(String id, String userId);
+}
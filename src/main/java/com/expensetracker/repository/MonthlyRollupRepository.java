@@ -0,0 +1,16 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.MonthlyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for MonthlyRollup entity operations.
+ */
+@Repository
+public interface MonthlyRollupRepository extends MongoRepository<MonthlyRollup, String> {
+
+    List<MonthlyRollup> findByUserIdAndYearOrderByMonthAsc(String userId, int year);
+}
@@ -0,0 +1,12 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for RefreshToken entity operations.
+ */
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+}
@@ -0,0 +1,12 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for RevokedToken entity operations.
+ */
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+}
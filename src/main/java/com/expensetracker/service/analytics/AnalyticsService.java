@@ -1,67 +1,281 @@
 package com.expensetracker.service.analytics;
 
 import com.expensetracker.dto.response.AnalyticsSummaryResponse;
+import com.expensetracker.dto.response.CategoryWiseSpendingResponse;
+import com.expensetracker.dto.response.ExpenseTrendResponse;
+import com.expensetracker.dto.response.MonthlySummaryResponse;
+import com.expensetracker.dto.response.YearlyReportResponse;
+import com.expensetracker.exception.BadRequestException;
 import com.expensetracker.model.Category;
-import com.expensetracker.model.Expense;
+import com.expensetracker.model.DailyRollup;
 import com.expensetracker.model.ExpenseType;
-import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.model.Money;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.model.User;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseRepositoryCustom;
+import com.expensetracker.service.category.CategoryCache;
 import com.expensetracker.service.user.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
+    private static final int TOP_CATEGORY_COUNT = 5;
+    private static final int DEFAULT_TREND_DAYS = 30;
+    private static final int MAX_TREND_YEARS = 5;
+
     private final ExpenseRepository expenseRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final DailyRollupService dailyRollupService;
 
+    /**
+     * Totals over all of the user's expenses, grouped by type and category in the
+     * database. Only one row per (type, category) pair reaches the JVM, so the result is
+     * exact for any number of expenses.
+     */
     public AnalyticsSummaryResponse getSummary() {
         String userId = userService.getCurrentUserId();
-        
-        List<Expense> expenses = expenseRepository.findByUserId(userId, PageRequest.of(0, 10000)).getContent();
-        List<Category> categories = categoryRepository.findByUserIdOrderByNameAsc(userId);
-        
-        BigDecimal totalExpenses = BigDecimal.ZERO;
-        BigDecimal totalIncome = BigDecimal.ZERO;
+        Map<String, Category> categories = categoryCache.byId(userId);
+
+        long totalExpenses = 0;
+        long totalIncome = 0;
+        long expenseCount = 0;
         Map<String, BigDecimal> expensesByCategory = new HashMap<>();
-        
-        for (Expense expense : expenses) {
-            if (expense.getExpenseType() == ExpenseType.EXPENSE) {
-                totalExpenses = totalExpenses.add(expense.getAmount());
-                
-                // Group by category
-                String categoryName = getCategoryName(expense.getCategoryId(), categories);
-                expensesByCategory.merge(categoryName, expense.getAmount(), BigDecimal::add);
-            } else if (expense.getExpenseType() == ExpenseType.INCOME) {
-                totalIncome = totalIncome.add(expense.getAmount());
+
+        for (ExpenseRepositoryCustom.TypeCategoryTotal group : expenseRepository.sumByTypeAndCategory(userId)) {
+            expenseCount += group.count();
+            long total = group.total().minorUnits();
+            if (group.expenseType() == ExpenseType.EXPENSE) {
+                totalExpenses = Math.addExact(totalExpenses, total);
+                expensesByCategory.merge(getCategoryName(group.categoryId(), categories),
+                        group.total().toBigDecimal(), BigDecimal::add);
+            } else if (group.expenseType() == ExpenseType.INCOME) {
+                totalIncome = Math.addExact(totalIncome, total);
             }
         }
-        
+
         return AnalyticsSummaryResponse.builder()
-                .totalExpenses(totalExpenses)
-                .totalIncome(totalIncome)
-                .balance(totalIncome.subtract(totalExpenses))
-                .expenseCount(expenses.size())
+                .totalExpenses(Money.toBigDecimal(totalExpenses))
+                .totalIncome(Money.toBigDecimal(totalIncome))
+                .balance(Money.toBigDecimal(Math.subtractExact(totalIncome, totalExpenses)))
+                .expenseCount(Math.toIntExact(expenseCount))
                 .categoryCount(categories.size())
                 .expensesByCategory(expensesByCategory)
                 .build();
     }
-    
-    private String getCategoryName(String categoryId, List<Category> categories) {
+
+    /**
+     * Totals, budget usage and category breakdown for one month, served from the month's
+     * rollup: one read by id whatever the number of expenses.
+     */
+    public MonthlySummaryResponse getMonthlySummary(String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("month must be formatted as yyyy-MM");
+        }
+        User user = userService.getCurrentUser();
+        Map<String, Category> categories = categoryCache.byId(user.getId());
+        MonthlyRollup rollup = monthlyRollupService.find(user.getId(), yearMonth)
+                .orElseGet(() -> MonthlyRollup.builder().year(yearMonth.getYear()).month(yearMonth.getMonthValue()).build());
+
+        Money totalExpenses = rollup.getTotalExpenses();
+        Money totalIncome = rollup.getTotalIncome();
+        List<MonthlySummaryResponse.CategoryExpense> breakdown = new ArrayList<>();
+        rollup.getCategories().forEach((categoryId, categoryTotal) -> {
+            String id = MonthlyRollup.UNCATEGORIZED.equals(categoryId) ? null : categoryId;
+            Category category = id != null ? categories.get(id) : null;
+            breakdown.add(MonthlySummaryResponse.CategoryExpense.builder()
+                    .categoryId(id)
+                    .categoryName(getCategoryName(id, categories))
+                    .categoryColor(category != null ? category.getColor() : null)
+                    .amount(categoryTotal.getTotal().toBigDecimal())
+                    .percentage(categoryTotal.getTotal().percentOf(totalExpenses))
+                    .transactionCount(Math.toIntExact(categoryTotal.getCount()))
+                    .build());
+        });
+        breakdown.sort(Comparator.comparing(MonthlySummaryResponse.CategoryExpense::getAmount).reversed());
+
+        MonthlySummaryResponse.MonthlySummaryResponseBuilder response = MonthlySummaryResponse.builder()
+                .month(yearMonth)
+                .totalExpenses(totalExpenses.toBigDecimal())
+                .totalIncome(totalIncome.toBigDecimal())
+                .netAmount(totalIncome.minus(totalExpenses).toBigDecimal())
+                .transactionCount(Math.toIntExact(rollup.getExpenseCount() + rollup.getIncomeCount()))
+                .categoryBreakdown(breakdown);
+        if (user.getMonthlyBudget() != null && user.getMonthlyBudget().signum() > 0) {
+            Money budget = Money.of(user.getMonthlyBudget());
+            response.budget(budget.toBigDecimal())
+                    .remainingBudget(budget.minus(totalExpenses).toBigDecimal())
+                    .budgetUsagePercentage(totalExpenses.percentOf(budget));
+        }
+        return response.build();
+    }
+
+    /**
+     * Monthly figures, averages and top categories for one year, assembled from at most
+     * 12 cached monthly rollups. Averages cover the months elapsed so far in the current
+     * year and all 12 months otherwise.
+     */
+    public YearlyReportResponse getYearlyReport(int year) {
+        if (year < 1 || year > 9999) {
+            throw new BadRequestException("year must be between 1 and 9999");
+        }
+        String userId = userService.getCurrentUserId();
+        Map<String, Category> categories = categoryCache.byId(userId);
+        Map<Integer, MonthlyRollup> byMonth = new HashMap<>();
+        for (MonthlyRollup rollup : monthlyRollupService.findYear(userId, year)) {
+            byMonth.put(rollup.getMonth(), rollup);
+        }
+
+        Money totalExpenses = Money.ZERO;
+        Money totalIncome = Money.ZERO;
+        long transactions = 0;
+        Map<String, Money> categoryTotals = new HashMap<>();
+        List<YearlyReportResponse.MonthlyData> monthlyData = new ArrayList<>(12);
+        for (Month month : Month.values()) {
+            MonthlyRollup rollup = byMonth.get(month.getValue());
+            Money expenses = rollup != null ? rollup.getTotalExpenses() : Money.ZERO;
+            Money income = rollup != null ? rollup.getTotalIncome() : Money.ZERO;
+            long count = rollup != null ? rollup.getExpenseCount() + rollup.getIncomeCount() : 0;
+            if (rollup != null) {
+                rollup.getCategories().forEach((categoryId, categoryTotal) ->
+                        categoryTotals.merge(categoryId, categoryTotal.getTotal(), Money::plus));
+            }
+            totalExpenses = totalExpenses.plus(expenses);
+            totalIncome = totalIncome.plus(income);
+            transactions += count;
+            monthlyData.add(YearlyReportResponse.MonthlyData.builder()
+                    .month(month.getValue())
+                    .monthName(month.getDisplayName(TextStyle.FULL, Locale.ENGLISH))
+                    .expenses(expenses.toBigDecimal())
+                    .income(income.toBigDecimal())
+                    .netAmount(income.minus(expenses).toBigDecimal())
+                    .transactionCount(Math.toIntExact(count))
+                    .build());
+        }
+
+        Money yearExpenses = totalExpenses;
+        List<YearlyReportResponse.TopCategory> topCategories = categoryTotals.entrySet().stream()
+                .sorted(Map.Entry.<String, Money>comparingByValue().reversed())
+                .limit(TOP_CATEGORY_COUNT)
+                .map(entry -> {
+                    String id = MonthlyRollup.UNCATEGORIZED.equals(entry.getKey()) ? null : entry.getKey();
+                    Category category = id != null ? categories.get(id) : null;
+                    return YearlyReportResponse.TopCategory.builder()
+                            .categoryId(id)
+                            .categoryName(getCategoryName(id, categories))
+                            .categoryColor(category != null ? category.getColor() : null)
+                            .totalAmount(entry.getValue().toBigDecimal())
+                            .percentage(entry.getValue().percentOf(yearExpenses))
+                            .build();
+                })
+                .toList();
+
+        int currentYear = Year.now().getValue();
+        int months = year == currentYear ? YearMonth.now().getMonthValue() : 12;
+        BigDecimal monthCount = BigDecimal.valueOf(months);
+        return YearlyReportResponse.builder()
+                .year(year)
+                .totalExpenses(totalExpenses.toBigDecimal())
+                .totalIncome(totalIncome.toBigDecimal())
+                .netAmount(totalIncome.minus(totalExpenses).toBigDecimal())
+                .averageMonthlyExpense(totalExpenses.toBigDecimal().divide(monthCount, Money.SCALE, Money.ROUNDING))
+                .averageMonthlyIncome(totalIncome.toBigDecimal().divide(monthCount, Money.SCALE, Money.ROUNDING))
+                .totalTransactions(Math.toIntExact(transactions))
+                .monthlyData(monthlyData)
+                .topCategories(topCategories)
+                .build();
+    }
+
+    /**
+     * Daily spending, its average, extremes and trend over {@code [startDate, endDate]},
+     * the last 30 days by default. Reads only the days that have spending, with one range
+     * scan of the daily rollups, and builds the result in the same pass.
+     */
+    public ExpenseTrendResponse getTrend(LocalDate startDate, LocalDate endDate) {
+        LocalDate to = endDate != null ? endDate : LocalDate.now();
+        LocalDate from = startDate != null ? startDate : to.minusDays(DEFAULT_TREND_DAYS - 1);
+        if (from.isAfter(to)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        if (to.isAfter(from.plusYears(MAX_TREND_YEARS))) {
+            throw new BadRequestException("Trend range must not exceed " + MAX_TREND_YEARS + " years");
+        }
+        String userId = userService.getCurrentUserId();
+
+        SpendingTrend trend = new SpendingTrend(from, to);
+        try (Stream<DailyRollup> days = dailyRollupService.streamRange(userId, from, to)) {
+            days.forEach(trend::accept);
+        }
+        return trend.toResponse();
+    }
+
+    /**
+     * Total, count, average, smallest and largest expense per category over an optional
+     * date range, with each category's share of all spending. Grouped by the database in
+     * one pass; percentages and averages are derived from the grouped rows, and display
+     * fields come from the denormalized copies on the expenses.
+     */
+    public CategoryWiseSpendingResponse getCategoryWiseSpending(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        String userId = userService.getCurrentUserId();
+        List<ExpenseRepositoryCustom.CategoryStats> groups = expenseRepository.spendingByCategory(userId, startDate, endDate);
+
+        Money totalSpent = Money.ZERO;
+        for (ExpenseRepositoryCustom.CategoryStats group : groups) {
+            totalSpent = totalSpent.plus(group.total());
+        }
+        Money spent = totalSpent;
+        List<CategoryWiseSpendingResponse.CategorySpending> categories = groups.stream()
+                .sorted(Comparator.comparing(ExpenseRepositoryCustom.CategoryStats::total).reversed())
+                .map(group -> CategoryWiseSpendingResponse.CategorySpending.builder()
+                        .categoryId(group.categoryId())
+                        .categoryName(group.categoryId() == null ? "Uncategorized" : group.categoryName())
+                        .categoryColor(group.categoryColor())
+                        .categoryIcon(group.categoryIcon())
+                        .totalAmount(group.total().toBigDecimal())
+                        .percentage(group.total().percentOf(spent))
+                        .transactionCount(Math.toIntExact(group.count()))
+                        .averageTransaction(group.total().toBigDecimal()
+                                .divide(BigDecimal.valueOf(group.count()), Money.SCALE, Money.ROUNDING))
+                        .smallestTransaction(group.smallest().toBigDecimal())
+                        .largestTransaction(group.largest().toBigDecimal())
+                        .build())
+                .toList();
+
+        return CategoryWiseSpendingResponse.builder()
+                .totalSpent(totalSpent.toBigDecimal())
+                .categories(categories)
+                .build();
+    }
+
+    private String getCategoryName(String categoryId, Map<String, Category> categories) {
         if (categoryId == null) return "Uncategorized";
-        return categories.stream()
-                .filter(c -> c.getId().equals(categoryId))
-                .map(Category::getName)
-                .findFirst()
-                .orElse("Unknown");
+        Category category = categories.get(categoryId);
+        return category != null ? category.getName() : "Unknown";
     }
 }
@@ -0,0 +1,182 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.model.DailyRollup;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.repository.DailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintains {@link DailyRollup}s, the per-user, per-day spending behind trend reports.
+ *
+ * Fed the same {@link ExpenseChangeSet}s as the monthly rollups and applied the same way:
+ * one $inc upsert per affected day, with {@link #rebuild} recomputing days from the
+ * expenses when they drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRollupService {
+
+    static final String INDEX_USER_DATE = "idx_daily_rollup_user_date";
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final DailyRollupRepository dailyRollupRepository;
+
+    /**
+     * The user's non-empty days within {@code [from, to]}, in date order, read with one
+     * range scan of the (userId, date) index. The stream must be closed.
+     */
+    public Stream<DailyRollup> streamRange(String userId, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("date").gte(from).lte(to))
+                .with(Sort.by(Sort.Direction.ASC, "date"))
+                .withHint(INDEX_USER_DATE)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("date", "totalExpenses", "expenseCount");
+        return mongoTemplate.stream(query, DailyRollup.class);
+    }
+
+    /**
+     * Apply the net spending change of each day. Income and changes that cancel out write nothing.
+     */
+    public void apply(ExpenseChangeSet changes) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (ExpenseChangeSet.Entry entry : changes.entries()) {
+            if (entry.type() != ExpenseType.EXPENSE) {
+                continue;
+            }
+            Delta delta = deltas.computeIfAbsent(DailyRollup.idOf(entry.userId(), entry.date()),
+                    id -> new Delta(entry.userId(), entry.date()));
+            delta.amount = Math.addExact(delta.amount, entry.amount());
+            delta.count += entry.count();
+        }
+
+        BulkOperations bulk = null;
+        Instant now = Instant.now();
+        for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            if (delta.amount == 0 && delta.count == 0) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+            }
+            Update update = new Update()
+                    .setOnInsert("userId", delta.userId)
+                    .setOnInsert("date", delta.date)
+                    .set("updatedAt", now);
+            if (delta.amount != 0) {
+                update.inc("totalExpenses", Money.ofMinorUnits(delta.amount).toDecimal128());
+            }
+            if (delta.count != 0) {
+                update.inc("expenseCount", delta.count);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(entry.getKey())), update);
+        }
+        if (bulk == null) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // the expense write itself succeeded; the days are repaired by a rebuild
+            log.warn("Failed to update daily rollups {}; rebuild them to repair: {}", deltas.keySet(), e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the days of the given months of a user's rollups from the expenses, or
+     * every day when {@code months} is null. The same caveat about concurrent writes as
+     * {@link MonthlyRollupService#rebuild} applies.
+     */
+    public void rebuild(String userId, Collection<YearMonth> months) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("amount").ne(null)
+                .and("expenseType").is(ExpenseType.EXPENSE)
+                .and("expenseDate").ne(null);
+        Criteria stale = Criteria.where("userId").is(userId);
+        if (months != null) {
+            if (months.isEmpty()) {
+                return;
+            }
+            criteria.orOperator(months.stream()
+                    .map(month -> Criteria.where("expenseDate").gte(month.atDay(1)).lte(month.atEndOfMonth()))
+                    .toArray(Criteria[]::new));
+            stale.orOperator(months.stream()
+                    .map(month -> Criteria.where("date").gte(month.atDay(1)).lte(month.atEndOfMonth()))
+                    .toArray(Criteria[]::new));
+        }
+
+        // Group by the date as the application sees it: LocalDates are stored as midnight
+        // in the JVM's default time zone
+        Document dayOf = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", "$expenseDate")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                context -> new Document("$group", new Document("_id", dayOf)
+                        .append("total", new Document("$sum", "$amount"))
+                        .append("count", new Document("$sum", 1))));
+
+        List<DailyRollup> rollups = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        Instant now = Instant.now();
+        for (Document group : mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(Expense.class), Document.class).getMappedResults()) {
+            LocalDate date = LocalDate.parse(group.getString("_id"));
+            DailyRollup rollup = DailyRollup.builder()
+                    .id(DailyRollup.idOf(userId, date))
+                    .userId(userId)
+                    .date(date)
+                    .totalExpenses(Money.ofMinorUnits(MonthlyRollupService.minorUnits(group.get("total"))))
+                    .expenseCount(((Number) group.get("count")).longValue())
+                    .updatedAt(now)
+                    .build();
+            rollups.add(rollup);
+            ids.add(rollup.getId());
+        }
+
+        dailyRollupRepository.saveAll(rollups);
+        // Days left without expenses
+        mongoTemplate.remove(Query.query(stale.and("_id").nin(ids)), DailyRollup.class);
+        log.debug("Rebuilt {} daily rollups for user {}", rollups.size(), userId);
+    }
+
+    private static final class Delta {
+
+        private final String userId;
+        private final LocalDate date;
+        private long amount;
+        private long count;
+
+        private Delta(String userId, LocalDate date) {
+            this.userId = userId;
+            this.date = date;
+        }
+    }
+}
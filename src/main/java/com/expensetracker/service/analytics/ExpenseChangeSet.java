@@ -0,0 +1,80 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Net effect of expense writes on pre-aggregated figures: the state each written expense
+ * had before the write is removed and the state after it is added.
+ *
+ * Only the fields that feed aggregates are copied when an expense is recorded, so the
+ * expense may be modified afterwards. Expenses without an amount, type or date are not
+ * counted anywhere and are ignored.
+ */
+public class ExpenseChangeSet {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public ExpenseChangeSet add(Expense expense) {
+        return record(expense, 1);
+    }
+
+    public ExpenseChangeSet addAll(Iterable<Expense> expenses) {
+        expenses.forEach(this::add);
+        return this;
+    }
+
+    public ExpenseChangeSet remove(Expense expense) {
+        return record(expense, -1);
+    }
+
+    /**
+     * Add the changes recorded in another change set.
+     */
+    public ExpenseChangeSet include(ExpenseChangeSet other) {
+        entries.addAll(other.entries);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    List<Entry> entries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Months touched by the recorded changes.
+     */
+    public Set<YearMonth> months() {
+        Set<YearMonth> months = new TreeSet<>();
+        entries.forEach(entry -> months.add(YearMonth.from(entry.date())));
+        return months;
+    }
+
+    private ExpenseChangeSet record(Expense expense, int sign) {
+        if (expense.getAmount() == null || expense.getExpenseType() == null || expense.getExpenseDate() == null) {
+            return this;
+        }
+        entries.add(new Entry(expense.getUserId(), expense.getExpenseDate(), expense.getExpenseType(),
+                expense.getCategoryId(), sign * Money.toMinorUnits(expense.getAmount()), sign));
+        return this;
+    }
+
+    /**
+     * One expense's contribution: {@code amount} in minor units and {@code count} are
+     * negative for removals.
+     */
+    record Entry(String userId, LocalDate date, ExpenseType type, String categoryId, long amount, int count) {
+    }
+}
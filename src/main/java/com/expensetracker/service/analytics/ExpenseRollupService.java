@@ -0,0 +1,58 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.model.DailyRollup;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.MonthlyRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Entry point for expense writers into the pre-aggregated rollups: every change set is
+ * applied to both the monthly and the daily rollups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+    private final DailyRollupService dailyRollupService;
+
+    public void apply(ExpenseChangeSet changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        monthlyRollupService.apply(changes);
+        dailyRollupService.apply(changes);
+    }
+
+    /**
+     * Recompute the given months of a user's rollups, or all of them when {@code months} is null.
+     */
+    public void rebuild(String userId, Collection<YearMonth> months) {
+        monthlyRollupService.rebuild(userId, months);
+        dailyRollupService.rebuild(userId, months);
+    }
+
+    /**
+     * Recompute every user's rollups from the expenses.
+     */
+    public void rebuildAll() {
+        Set<String> userIds = new TreeSet<>(mongoTemplate.findDistinct(new Query(), "userId", Expense.class, String.class));
+        userIds.addAll(mongoTemplate.findDistinct(new Query(), "userId", MonthlyRollup.class, String.class));
+        userIds.addAll(mongoTemplate.findDistinct(new Query(), "userId", DailyRollup.class, String.class));
+        for (String userId : userIds) {
+            rebuild(userId, null);
+        }
+        log.info("Rebuilt rollups for {} users", userIds.size());
+    }
+}
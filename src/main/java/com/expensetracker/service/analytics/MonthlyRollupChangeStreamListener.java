@@ -0,0 +1,59 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.model.MonthlyRollup;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Evicts cached years of rollups when another node writes to them, so yearly reports
+ * reflect writes made elsewhere without waiting for the cache TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.change-streams.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupChangeStreamListener {
+
+    private final MessageListenerContainer messageListenerContainer;
+    private final MongoTemplate mongoTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+
+    @PostConstruct
+    void register() {
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder()
+                .collection(mongoTemplate.getCollectionName(MonthlyRollup.class))
+                .publishTo(this::onChange)
+                .build();
+        messageListenerContainer.register(request, Document.class);
+        log.info("Listening for monthly rollup changes on collection: {}", request.getRequestOptions().getCollectionName());
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        BsonDocument documentKey = message.getRaw().getDocumentKey();
+        if (documentKey == null) {
+            return;
+        }
+        // Ids are userId:yyyy-MM
+        String id = documentKey.getString("_id").getValue();
+        int separator = id.lastIndexOf(':');
+        try {
+            YearMonth month = YearMonth.parse(id.substring(separator + 1));
+            monthlyRollupService.evict(id.substring(0, separator), month.getYear());
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            log.debug("Ignoring change to unexpected rollup id {}", id);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.repository.MonthlyRollupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains {@link MonthlyRollup}s, the per-user, per-month totals behind monthly and
+ * yearly reports.
+ *
+ * Writers describe what changed as an {@link ExpenseChangeSet} taken from the state
+ * before and after each write; the net effect is applied as one atomic $inc upsert per
+ * affected month. When a writer cannot tell exactly what changed, or rollups have
+ * drifted for any other reason, {@link #rebuild} recomputes months from the expenses.
+ *
+ * A year's rollups are cached per user. Concurrent misses for the same year share one
+ * load, entries are invalidated by writes to that year (on other nodes through
+ * {@link MonthlyRollupChangeStreamListener}), and past years, which rarely change, are
+ * kept much longer than the current one. Cached rollups are shared and must not be mutated.
+ */
+@Service
+@Slf4j
+public class MonthlyRollupService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final Cache<YearKey, List<MonthlyRollup>> years;
+
+    public MonthlyRollupService(MongoTemplate mongoTemplate,
+                                MonthlyRollupRepository monthlyRollupRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.rollup-cache.current-year-ttl:1m}") Duration currentYearTtl,
+                                @Value("${app.rollup-cache.past-year-ttl:12h}") Duration pastYearTtl,
+                                @Value("${app.rollup-cache.maximum-size:20000}") long maximumSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.monthlyRollupRepository = monthlyRollupRepository;
+        this.years = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new YearExpiry(currentYearTtl.toNanos(), pastYearTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, years, "monthlyRollupYears");
+    }
+
+    public Optional<MonthlyRollup> find(String userId, YearMonth month) {
+        return monthlyRollupRepository.findById(MonthlyRollup.idOf(userId, month));
+    }
+
+    /**
+     * The user's rollups for the months of the year that have any, in month order.
+     */
+    public List<MonthlyRollup> findYear(String userId, int year) {
+        return years.get(new YearKey(userId, year),
+                key -> List.copyOf(monthlyRollupRepository.findByUserIdAndYearOrderByMonthAsc(key.userId(), key.year())));
+    }
+
+    /**
+     * Drop a cached year after a write to it. A load running concurrently completes
+     * before the entry is removed, so it cannot resurrect stale data.
+     */
+    public void evict(String userId, int year) {
+        years.invalidate(new YearKey(userId, year));
+    }
+
+    /**
+     * Apply the net effect of the changes. Changes that cancel out, such as an edit of
+     * an expense's title, write nothing.
+     */
+    public void apply(ExpenseChangeSet changes) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (ExpenseChangeSet.Entry entry : changes.entries()) {
+            YearMonth month = YearMonth.from(entry.date());
+            deltas.computeIfAbsent(MonthlyRollup.idOf(entry.userId(), month), id -> new Delta(entry.userId(), month))
+                    .add(entry);
+        }
+
+        BulkOperations bulk = null;
+        for (Map.Entry<String, Delta> delta : deltas.entrySet()) {
+            if (delta.getValue().isEmpty()) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyRollup.class);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getKey())), delta.getValue().toUpdate());
+        }
+        if (bulk == null) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // the expense write itself succeeded; the months are repaired by a rebuild
+            log.warn("Failed to update monthly rollups {}; rebuild them to repair: {}", deltas.keySet(), e.getMessage());
+        } finally {
+            deltas.values().forEach(delta -> evict(delta.userId, delta.month.getYear()));
+        }
+    }
+
+    /**
+     * Recompute the given months of a user's rollups from the expenses, or every month
+     * when {@code months} is null. Writes made while a month is being recomputed may be
+     * counted twice or not at all; rebuild again once writes have settled if exactness matters.
+     */
+    public void rebuild(String userId, Collection<YearMonth> months) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("amount").ne(null)
+                .and("expenseType").ne(null)
+                .and("expenseDate").ne(null);
+        if (months != null) {
+            if (months.isEmpty()) {
+                return;
+            }
+            criteria.orOperator(months.stream()
+                    .map(month -> Criteria.where("expenseDate").gte(month.atDay(1)).lte(month.atEndOfMonth()))
+                    .toArray(Criteria[]::new));
+        }
+
+        // Group by the month of the date as the application sees it: LocalDates are stored
+        // as midnight in the JVM's default time zone
+        Document monthOf = new Document("$dateToString", new Document("format", "%Y-%m")
+                .append("date", "$expenseDate")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                context -> new Document("$group", new Document("_id", new Document("month", monthOf)
+                        .append("expenseType", "$expenseType")
+                        .append("categoryId", "$categoryId"))
+                        .append("total", new Document("$sum", "$amount"))
+                        .append("count", new Document("$sum", 1))));
+
+        Map<String, MonthlyRollup> rollups = new HashMap<>();
+        Instant now = Instant.now();
+        for (Document group : mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(Expense.class), Document.class).getMappedResults()) {
+            Document key = group.get("_id", Document.class);
+            YearMonth month = YearMonth.parse(key.getString("month"));
+            MonthlyRollup rollup = rollups.computeIfAbsent(MonthlyRollup.idOf(userId, month), id -> MonthlyRollup.builder()
+                    .id(id)
+                    .userId(userId)
+                    .year(month.getYear())
+                    .month(month.getMonthValue())
+                    .updatedAt(now)
+                    .build());
+            Money total = Money.ofMinorUnits(minorUnits(group.get("total")));
+            long count = ((Number) group.get("count")).longValue();
+            if (ExpenseType.EXPENSE.name().equals(key.getString("expenseType"))) {
+                rollup.setTotalExpenses(rollup.getTotalExpenses().plus(total));
+                rollup.setExpenseCount(rollup.getExpenseCount() + count);
+                String categoryKey = categoryKey(key.getString("categoryId"));
+                MonthlyRollup.CategoryTotal categoryTotal = rollup.getCategories()
+                        .computeIfAbsent(categoryKey, k -> new MonthlyRollup.CategoryTotal());
+                categoryTotal.setTotal(categoryTotal.getTotal().plus(total));
+                categoryTotal.setCount(categoryTotal.getCount() + count);
+            } else if (ExpenseType.INCOME.name().equals(key.getString("expenseType"))) {
+                rollup.setTotalIncome(rollup.getTotalIncome().plus(total));
+                rollup.setIncomeCount(rollup.getIncomeCount() + count);
+            }
+        }
+
+        monthlyRollupRepository.saveAll(rollups.values());
+
+        // Months left without expenses
+        Criteria stale = Criteria.where("userId").is(userId);
+        if (months == null) {
+            stale.and("_id").nin(rollups.keySet());
+        } else {
+            stale.and("_id").in(months.stream()
+                    .map(month -> MonthlyRollup.idOf(userId, month))
+                    .filter(id -> !rollups.containsKey(id))
+                    .toList());
+        }
+        mongoTemplate.remove(Query.query(stale), MonthlyRollup.class);
+        if (months == null) {
+            years.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        } else {
+            months.forEach(month -> evict(userId, month.getYear()));
+        }
+        log.debug("Rebuilt {} monthly rollups for user {}", rollups.size(), userId);
+    }
+
+    static String categoryKey(String categoryId) {
+        return categoryId != null ? categoryId : MonthlyRollup.UNCATEGORIZED;
+    }
+
+    static long minorUnits(Object sum) {
+        if (sum instanceof Decimal128 decimal) {
+            return Money.toMinorUnits(decimal);
+        }
+        return sum instanceof Number number ? Money.toMinorUnits(new BigDecimal(number.toString())) : 0;
+    }
+
+    private record YearKey(String userId, int year) {
+    }
+
+    /**
+     * Keeps the current and future years for the short TTL and past years for the long one.
+     */
+    private record YearExpiry(long currentYearNanos, long pastYearNanos) implements Expiry<YearKey, List<MonthlyRollup>> {
+
+        @Override
+        public long expireAfterCreate(YearKey key, List<MonthlyRollup> value, long currentTime) {
+            return key.year() < Year.now().getValue() ? pastYearNanos : currentYearNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(YearKey key, List<MonthlyRollup> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(YearKey key, List<MonthlyRollup> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Net increments for one month, in minor units and counts per field path.
+     */
+    private static final class Delta {
+
+        private final String userId;
+        private final YearMonth month;
+        private final Map<String, Long> amounts = new LinkedHashMap<>();
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+
+        private Delta(String userId, YearMonth month) {
+            this.userId = userId;
+            this.month = month;
+        }
+
+        private void add(ExpenseChangeSet.Entry entry) {
+            if (entry.type() == ExpenseType.EXPENSE) {
+                increment("totalExpenses", "expenseCount", entry);
+                String category = "categories." + categoryKey(entry.categoryId());
+                increment(category + ".total", category + ".count", entry);
+            } else if (entry.type() == ExpenseType.INCOME) {
+                increment("totalIncome", "incomeCount", entry);
+            }
+        }
+
+        private void increment(String amountField, String countField, ExpenseChangeSet.Entry entry) {
+            amounts.merge(amountField, entry.amount(), Math::addExact);
+            counts.merge(countField, (long) entry.count(), Long::sum);
+        }
+
+        private boolean isEmpty() {
+            return amounts.values().stream().allMatch(amount -> amount == 0)
+                    && counts.values().stream().allMatch(count -> count == 0);
+        }
+
+        private Update toUpdate() {
+            Update update = new Update()
+                    .setOnInsert("userId", userId)
+                    .setOnInsert("year", month.getYear())
+                    .setOnInsert("month", month.getMonthValue())
+                    .set("updatedAt", Instant.now());
+            amounts.forEach((field, amount) -> {
+                if (amount != 0) {
+                    update.inc(field, Money.ofMinorUnits(amount).toDecimal128());
+                }
+            });
+            counts.forEach((field, count) -> {
+                if (count != 0) {
+                    update.inc(field, count);
+                }
+            });
+            return update;
+        }
+    }
+}
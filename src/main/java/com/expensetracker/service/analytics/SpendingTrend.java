@@ -0,0 +1,153 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.dto.response.ExpenseTrendResponse;
+import com.expensetracker.model.DailyRollup;
+import com.expensetracker.model.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
+
+/**
+ * Builds an {@link ExpenseTrendResponse} from a date-ordered stream of daily rollups in a
+ * single pass.
+ *
+ * Days are held as parallel arrays of minor units and counts, so days without spending
+ * cost two zeros rather than an object; the daily series is a list view that creates each
+ * entry only when it is read. The trend is the least-squares slope over every day of the
+ * range, expressed as the fitted change across the range relative to the daily average.
+ */
+class SpendingTrend {
+
+    static final String INCREASING = "INCREASING";
+    static final String DECREASING = "DECREASING";
+    static final String STABLE = "STABLE";
+
+    /**
+     * Fitted changes smaller than this percentage of the daily average count as stable.
+     */
+    private static final double STABLE_THRESHOLD_PERCENT = 5.0;
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long[] amounts;
+    private final int[] counts;
+
+    private long total;
+    private double weightedSum;
+    private int nextDay;
+    private int firstEmptyDay = -1;
+    private int highestDay = -1;
+    private int lowestDay = -1;
+
+    SpendingTrend(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        int days = Math.toIntExact(ChronoUnit.DAYS.between(from, to) + 1);
+        this.amounts = new long[days];
+        this.counts = new int[days];
+    }
+
+    /**
+     * Record the next day with spending; days must arrive in date order.
+     */
+    void accept(DailyRollup rollup) {
+        int day = Math.toIntExact(ChronoUnit.DAYS.between(from, rollup.getDate()));
+        if (day < nextDay || day >= amounts.length) {
+            return;
+        }
+        if (day > nextDay && firstEmptyDay < 0) {
+            firstEmptyDay = nextDay;
+        }
+        long amount = rollup.getTotalExpenses().minorUnits();
+        amounts[day] = amount;
+        counts[day] = Math.toIntExact(rollup.getExpenseCount());
+        total = Math.addExact(total, amount);
+        weightedSum += (double) day * amount;
+        if (highestDay < 0 || amount > amounts[highestDay]) {
+            highestDay = day;
+        }
+        if (lowestDay < 0 || amount < amounts[lowestDay]) {
+            lowestDay = day;
+        }
+        nextDay = day + 1;
+    }
+
+    ExpenseTrendResponse toResponse() {
+        int days = amounts.length;
+        if (nextDay < days && firstEmptyDay < 0) {
+            firstEmptyDay = nextDay;
+        }
+        // An empty day spends nothing, so the earliest one is the lowest unless a recorded
+        // day before it spent nothing too
+        if (firstEmptyDay >= 0 && (lowestDay < 0 || amounts[lowestDay] > 0
+                || (amounts[lowestDay] == 0 && firstEmptyDay < lowestDay))) {
+            lowestDay = firstEmptyDay;
+        }
+        if (highestDay < 0) {
+            highestDay = 0;
+        }
+
+        double changePercentage = changePercentage(days);
+        String trend = Math.abs(changePercentage) < STABLE_THRESHOLD_PERCENT ? STABLE
+                : changePercentage > 0 ? INCREASING : DECREASING;
+
+        return ExpenseTrendResponse.builder()
+                .startDate(from)
+                .endDate(to)
+                .totalAmount(Money.toBigDecimal(total))
+                .averageDailySpending(Money.toBigDecimal(total)
+                        .divide(BigDecimal.valueOf(days), Money.SCALE, Money.ROUNDING))
+                .dailyExpenses(new DailySeries())
+                .trendAnalysis(ExpenseTrendResponse.TrendAnalysis.builder()
+                        .trend(trend)
+                        .changePercentage(changePercentage)
+                        .highestSpendingDay(Money.toBigDecimal(amounts[highestDay]))
+                        .highestSpendingDate(from.plusDays(highestDay))
+                        .lowestSpendingDay(Money.toBigDecimal(amounts[lowestDay]))
+                        .lowestSpendingDate(from.plusDays(lowestDay))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Least-squares slope times the range length, as a percentage of the daily average,
+     * rounded HALF_UP to two decimals. Sums over the day index have closed forms, so
+     * empty days need no visit.
+     */
+    private double changePercentage(int days) {
+        if (days < 2 || total == 0) {
+            return 0.0;
+        }
+        double n = days;
+        double sumX = n * (n - 1) / 2;
+        double sumXX = (n - 1) * n * (2 * n - 1) / 6;
+        double slope = (n * weightedSum - sumX * total) / (n * sumXX - sumX * sumX);
+        double mean = total / n;
+        return BigDecimal.valueOf(slope * (n - 1) / mean * 100)
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    /**
+     * One entry per day of the range, created on access from the arrays.
+     */
+    private final class DailySeries extends AbstractList<ExpenseTrendResponse.DailyExpense> {
+
+        @Override
+        public ExpenseTrendResponse.DailyExpense get(int index) {
+            return ExpenseTrendResponse.DailyExpense.builder()
+                    .date(from.plusDays(index))
+                    .amount(Money.toBigDecimal(amounts[index]))
+                    .transactionCount(counts[index])
+                    .build();
+        }
+
+        @Override
+        public int size() {
+            return amounts.length;
+        }
+    }
+}
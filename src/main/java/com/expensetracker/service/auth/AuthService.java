@@ -6,10 +6,12 @@ import com.expensetracker.dto.request.RegisterRequest;
 import com.expensetracker.dto.response.AuthResponse;
 import com.expensetracker.exception.AuthenticationException;
 import com.expensetracker.exception.DuplicateResourceException;
+import com.expensetracker.model.RefreshToken;
 import com.expensetracker.model.Role;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,6 +35,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Register a new user.
@@ -65,7 +69,7 @@ public class AuthService {
 
         // Generate tokens
         String accessToken = jwtUtil.generateToken(user);
-        String refreshToken = jwtUtil.generateRefreshToken(user);
+        String refreshToken = refreshTokenService.issue(user);
 
         return buildAuthResponse(user, accessToken, refreshToken);
     }
@@ -73,7 +77,7 @@ public class AuthService {
     /**
      * Authenticate user and generate tokens.
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -87,7 +91,7 @@ public class AuthService {
             log.info("User logged in: {}", user.getUsername());
 
             String accessToken = jwtUtil.generateToken(user);
-            String refreshToken = jwtUtil.generateRefreshToken(user);
+            String refreshToken = refreshTokenService.issue(user);
 
             return buildAuthResponse(user, accessToken, refreshToken);
         } catch (BadCredentialsException e) {
@@ -96,28 +100,66 @@ public class AuthService {
     }
 
     /**
-     * Refresh access token using refresh token.
+     * Rotate a refresh token: the presented token is consumed and a new one
+     * is issued in the same family together with a new access token.
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.getRefreshToken();
+        Claims claims = resolveRefreshClaims(request.getRefreshToken());
 
-        if (!jwtUtil.validateToken(refreshToken)) {
-            throw new AuthenticationException("Invalid or expired refresh token");
+        String userId = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new AuthenticationException("User not found"));
+
+        Number tokenVersion = claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Number.class);
+        if (tokenVersion == null || tokenVersion.longValue() != user.getTokenVersion()) {
+            throw new AuthenticationException("Refresh token has been revoked");
         }
 
-        String username = jwtUtil.extractUsername(refreshToken);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new AuthenticationException("User not found"));
+        RefreshToken consumed = refreshTokenService.consume(claims.getId(), userId);
 
         String newAccessToken = jwtUtil.generateToken(user);
-        String newRefreshToken = jwtUtil.generateRefreshToken(user);
+        String newRefreshToken = refreshTokenService.issue(user, consumed.getFamilyId());
 
-        log.debug("Token refreshed for user: {}", username);
+        log.debug("Token refreshed for user: {}", user.getUsername());
 
         return buildAuthResponse(user, newAccessToken, newRefreshToken);
     }
 
+    /**
+     * Log out: revoke the refresh token family and, if presented, the access token.
+     */
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        Claims refreshClaims = resolveRefreshClaims(request.getRefreshToken());
+        refreshTokenService.revokeFamily(refreshClaims.get(JwtUtil.CLAIM_FAMILY_ID, String.class));
+
+        if (accessToken != null) {
+            Claims accessClaims = jwtUtil.resolveClaims(accessToken);
+            if (accessClaims != null && accessClaims.getId() != null) {
+                tokenRevocationService.revoke(
+                        accessClaims.getId(),
+                        accessClaims.get(JwtUtil.CLAIM_USER_ID, String.class),
+                        accessClaims.getExpiration().toInstant());
+            }
+        }
+
+        log.info("User logged out: {}", refreshClaims.getSubject());
+    }
+
+    /**
+     * Verify a refresh token and return its claims.
+     */
+    private Claims resolveRefreshClaims(String refreshToken) {
+        Claims claims = jwtUtil.resolveClaims(refreshToken);
+        if (claims == null
+                || !JwtUtil.TOKEN_TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TOKEN_TYPE, String.class))
+                || claims.getId() == null
+                || claims.get(JwtUtil.CLAIM_USER_ID, String.class) == null) {
+            throw new AuthenticationException("Invalid or expired refresh token");
+        }
+        return claims;
+    }
+
     /**
      * Build authentication response.
      */
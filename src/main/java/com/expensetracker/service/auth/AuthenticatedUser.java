@@ -0,0 +1,39 @@
+package com.expensetracker.service.auth;
+
+import com.expensetracker.model.Role;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lightweight principal built from access token claims.
+ * Lets request handling identify the caller without loading the user document.
+ */
+@Getter
+@RequiredArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String username;
+    private final Role role;
+    private final long tokenVersion;
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -2,8 +2,15 @@ package com.expensetracker.service.auth;
 
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.user.UserCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,24 +18,44 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Custom UserDetailsService implementation for Spring Security.
+ * Also upgrades stored password hashes when the configured BCrypt cost changes.
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UserCache userCache;
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        return userRepository.findByUsernameOrEmail(usernameOrEmail)
+        return userCache.findByUsernameOrEmail(usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "User not found with username or email: " + usernameOrEmail));
     }
 
     @Transactional(readOnly = true)
     public User loadUserById(String id) {
-        return userRepository.findById(id)
+        return userCache.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
     }
+
+    /**
+     * Store a password hash re-encoded at the current cost after a successful login.
+     * Only the password field is written; cached instances are never mutated.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(user.getId())),
+                Update.update("password", newPassword),
+                User.class);
+        userCache.invalidate(user);
+        log.info("Password hash upgraded for user: {}", user.getUsername());
+        return userRepository.findById(user.getId()).orElse(user);
+    }
 }
@@ -0,0 +1,98 @@
+package com.expensetracker.service.auth;
+
+import com.expensetracker.exception.AuthenticationException;
+import com.expensetracker.model.RefreshToken;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.RefreshTokenRepository;
+import com.expensetracker.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Refresh token family store supporting rotation and reuse detection.
+ *
+ * Each refresh token can be exchanged exactly once. Presenting a token that was
+ * already rotated means it leaked, so the whole family is revoked and the
+ * legitimate holder has to log in again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * Issue the first refresh token of a new family, e.g. on login.
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Issue a refresh token in an existing family.
+     */
+    public String issue(User user, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(tokenId)
+                .familyId(familyId)
+                .userId(user.getId())
+                .issuedAt(now)
+                .expiresAt(now.plusMillis(jwtUtil.getRefreshExpirationTime()))
+                .build());
+
+        return jwtUtil.generateRefreshToken(user, tokenId, familyId);
+    }
+
+    /**
+     * Atomically mark a refresh token as used and return its record.
+     * Throws if the token is unknown, revoked or already used; reuse revokes the family.
+     */
+    public RefreshToken consume(String tokenId, String userId) {
+        Query unused = Query.query(Criteria.where("_id").is(tokenId)
+                .and("userId").is(userId)
+                .and("usedAt").is(null)
+                .and("revoked").is(false));
+
+        RefreshToken consumed = mongoTemplate.findAndModify(
+                unused,
+                Update.update("usedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                RefreshToken.class);
+        if (consumed != null) {
+            return consumed;
+        }
+
+        refreshTokenRepository.findById(tokenId)
+                .filter(token -> userId.equals(token.getUserId()))
+                .ifPresent(token -> {
+                    revokeFamily(token.getFamilyId());
+                    log.warn("Refresh token reuse detected for user: {}, family revoked", userId);
+                });
+        throw new AuthenticationException("Invalid or expired refresh token");
+    }
+
+    /**
+     * Revoke every refresh token in a family.
+     */
+    public void revokeFamily(String familyId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("familyId").is(familyId)),
+                Update.update("revoked", true),
+                RefreshToken.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.expensetracker.service.auth;
+
+import com.expensetracker.model.RevokedToken;
+import com.expensetracker.repository.RevokedTokenRepository;
+import com.expensetracker.util.BloomFilter;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Access token revocation list.
+ *
+ * The request path only consults an in-memory Bloom filter of revoked token ids;
+ * Mongo is queried only on a filter hit to rule out false positives. The filter is
+ * rebuilt periodically from the revoked_tokens collection, and new revocations from
+ * other nodes are added as they arrive on the change stream.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<MessageListenerContainer> messageListenerContainer;
+
+    private volatile BloomFilter revokedIds = BloomFilter.create(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+    // The filter being rebuilt, if any; revocations arriving meanwhile go into both
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  MongoTemplate mongoTemplate,
+                                  ObjectProvider<MessageListenerContainer> messageListenerContainer) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.messageListenerContainer = messageListenerContainer;
+    }
+
+    @PostConstruct
+    void listenForRevocations() {
+        messageListenerContainer.ifAvailable(container -> {
+            ChangeStreamRequest<Document> request = ChangeStreamRequest.builder()
+                    .collection(mongoTemplate.getCollectionName(RevokedToken.class))
+                    .publishTo(this::onRevocation)
+                    .build();
+            container.register(request, Document.class);
+        });
+    }
+
+    /**
+     * Check whether an access token id has been revoked.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !revokedIds.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(tokenId);
+    }
+
+    /**
+     * Revoke an access token until its natural expiration.
+     */
+    public void revoke(String tokenId, String userId, Instant expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .id(tokenId)
+                .userId(userId)
+                .revokedAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build());
+        remember(tokenId);
+        log.info("Access token revoked for user: {}", userId);
+    }
+
+    /**
+     * Rebuild the filter from Mongo so it tracks TTL removals and stays correctly sized.
+     * The new filter is published for revocations before the snapshot is read, so ids
+     * revoked while the rebuild runs are in it whether or not the snapshot sees them.
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.rebuild-interval-ms:60000}")
+    public synchronized void rebuild() {
+        try {
+            long count = revokedTokenRepository.count();
+            BloomFilter rebuilt = BloomFilter.create(Math.max(MIN_CAPACITY, count * 2), FALSE_POSITIVE_RATE);
+            rebuilding = rebuilt;
+
+            Query query = new Query();
+            query.fields().include("_id");
+            try (Stream<Document> ids = mongoTemplate.stream(query, Document.class,
+                    mongoTemplate.getCollectionName(RevokedToken.class))) {
+                ids.forEach(document -> rebuilt.put(document.getString("_id")));
+            }
+
+            revokedIds = rebuilt;
+            log.debug("Revocation filter rebuilt with {} token ids", count);
+        } catch (Exception e) {
+            log.warn("Failed to rebuild revocation filter: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Add a revoked id to the filter. The id is persisted before this is called, so when
+     * no rebuild is in flight yet, a later rebuild's snapshot includes it; the filter being
+     * rebuilt is written first so a swap between the two writes cannot lose the id.
+     */
+    private void remember(String tokenId) {
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(tokenId);
+        }
+        revokedIds.put(tokenId);
+    }
+
+    private void onRevocation(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        if (event.getOperationType() != OperationType.INSERT && event.getOperationType() != OperationType.REPLACE) {
+            return;
+        }
+        BsonValue id = event.getDocumentKey() != null ? event.getDocumentKey().get("_id") : null;
+        if (id != null && id.isString()) {
+            remember(id.asString().getValue());
+        }
+    }
+}
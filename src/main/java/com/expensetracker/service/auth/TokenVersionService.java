@@ -0,0 +1,86 @@
+package com.expensetracker.service.auth;
+
+import com.expensetracker.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Tracks the account-state version embedded in access tokens.
+ * Bumping a user's version revokes every token issued before the bump.
+ * Current versions are cached in memory so the per-request check is usually free.
+ */
+@Service
+@Slf4j
+public class TokenVersionService {
+
+    private static final String TOKEN_VERSION_FIELD = "tokenVersion";
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Long> versions;
+
+    public TokenVersionService(MongoTemplate mongoTemplate,
+                               @Value("${app.token-version.cache-ttl:30s}") Duration cacheTtl,
+                               @Value("${app.token-version.cache-size:100000}") long cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Check that a token's version matches the user's current version.
+     * Returns false for users that no longer exist.
+     */
+    public boolean isCurrent(String userId, long tokenVersion) {
+        Long current = versions.get(userId, this::loadVersion);
+        return current != null && current == tokenVersion;
+    }
+
+    /**
+     * Increment the user's version, invalidating all previously issued tokens.
+     */
+    public long bump(String userId) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().include(TOKEN_VERSION_FIELD);
+        User updated = mongoTemplate.findAndModify(
+                query,
+                new Update().inc(TOKEN_VERSION_FIELD, 1L),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+
+        if (updated == null) {
+            versions.invalidate(userId);
+            return 0L;
+        }
+
+        long version = updated.getTokenVersion();
+        versions.put(userId, version);
+        log.debug("Token version bumped to {} for user: {}", version, userId);
+        return version;
+    }
+
+    /**
+     * Drop the cached version so the next check reloads it.
+     */
+    public void evict(String userId) {
+        versions.invalidate(userId);
+    }
+
+    private Long loadVersion(String userId) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().include(TOKEN_VERSION_FIELD);
+        User user = mongoTemplate.findOne(query, User.class);
+        return user != null ? user.getTokenVersion() : null;
+    }
+}
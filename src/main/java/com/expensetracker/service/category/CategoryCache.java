@@ -0,0 +1,98 @@
+package com.expensetracker.service.category;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory cache of each user's own categories, loaded with a single query per user.
+ *
+ * Expense writes resolve categories here instead of querying Mongo per write.
+ * {@link CategoryService} invalidates a user's entry after every local category change,
+ * and {@link CategoryChangeStreamListener} after changes made on other nodes, so a node
+ * does not keep attaching expenses to a category deleted or merged elsewhere. The TTL
+ * only bounds staleness when change streams are disabled. Cached categories are shared
+ * and must not be mutated.
+ */
+@Component
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final Cache<String, UserCategories> categoriesByUser;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.category-cache.ttl:5m}") Duration ttl,
+                         @Value("${app.category-cache.maximum-size:20000}") long maximumSize) {
+        this.categoryRepository = categoryRepository;
+        this.categoriesByUser = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, categoriesByUser, "categories");
+    }
+
+    /**
+     * All categories owned by the user, ordered by name.
+     */
+    public List<Category> findAll(String userId) {
+        return get(userId).ordered();
+    }
+
+    /**
+     * A category owned by the user, by id.
+     */
+    public Optional<Category> findById(String userId, String categoryId) {
+        return Optional.ofNullable(get(userId).byId().get(categoryId));
+    }
+
+    /**
+     * The user's categories keyed by id.
+     */
+    public Map<String, Category> byId(String userId) {
+        return get(userId).byId();
+    }
+
+    /**
+     * Drop the user's entry after a local category change. A load running concurrently
+     * completes before the entry is removed, so it cannot resurrect stale data.
+     */
+    public void invalidate(String userId) {
+        categoriesByUser.invalidate(userId);
+    }
+
+    /**
+     * Drop every entry that holds the category, for changes whose owner is unknown, such
+     * as deletions seen on the change stream.
+     */
+    public void evictCategory(String categoryId) {
+        categoriesByUser.asMap().values().removeIf(categories -> categories.byId().containsKey(categoryId));
+    }
+
+    private UserCategories get(String userId) {
+        return categoriesByUser.get(userId, this::load);
+    }
+
+    private UserCategories load(String userId) {
+        List<Category> ordered = List.copyOf(categoryRepository.findByUserIdOrderByNameAsc(userId));
+        Map<String, Category> byId = ordered.stream()
+                .collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity()));
+        return new UserCategories(ordered, byId);
+    }
+
+    private record UserCategories(List<Category> ordered, Map<String, Category> byId) {
+    }
+}
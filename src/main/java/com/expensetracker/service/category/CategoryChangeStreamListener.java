@@ -0,0 +1,58 @@
+package com.expensetracker.service.category;
+
+import com.expensetracker.model.Category;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached categories when a category document changes on any node.
+ * Inserts and updates carry the owner in the looked-up document; deletions only carry
+ * the id, so every cached entry holding that category is dropped instead.
+ */
+@Component
+@ConditionalOnProperty(name = "app.change-streams.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryChangeStreamListener {
+
+    private final MessageListenerContainer messageListenerContainer;
+    private final MongoTemplate mongoTemplate;
+    private final CategoryCache categoryCache;
+
+    @PostConstruct
+    void register() {
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder()
+                .collection(mongoTemplate.getCollectionName(Category.class))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .publishTo(this::onChange)
+                .build();
+        messageListenerContainer.register(request, Document.class);
+        log.info("Listening for category changes on collection: {}", request.getRequestOptions().getCollectionName());
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        Document category = event.getFullDocument();
+        if (category != null && category.getString("userId") != null) {
+            categoryCache.invalidate(category.getString("userId"));
+        }
+        BsonDocument documentKey = event.getDocumentKey();
+        if (documentKey == null) {
+            return;
+        }
+        BsonValue id = documentKey.get("_id");
+        categoryCache.evictCategory(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+    }
+}
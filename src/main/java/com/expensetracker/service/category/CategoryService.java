@@ -1,11 +1,16 @@
 package com.expensetracker.service.category;
 
 import com.expensetracker.dto.request.CreateCategoryRequest;
+import com.expensetracker.dto.request.UpdateCategoryRequest;
 import com.expensetracker.dto.response.CategoryResponse;
+import com.expensetracker.dto.response.CategorySyncJobResponse;
+import com.expensetracker.exception.BadRequestException;
 import com.expensetracker.exception.DuplicateResourceException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Category;
+import com.expensetracker.model.CategorySyncJob;
 import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.service.user.DataVersionService;
 import com.expensetracker.service.user.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +26,9 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final UserService userService;
+    private final CategorySyncService categorySyncService;
+    private final CategoryCache categoryCache;
+    private final DataVersionService dataVersionService;
 
     public CategoryResponse createCategory(CreateCategoryRequest request) {
         String userId = userService.getCurrentUserId();
@@ -38,6 +46,7 @@ public class CategoryService {
                 .build();
 
         category = categoryRepository.save(category);
+        categoriesChanged(userId);
         log.info("Category created: {} for user: {}", category.getName(), userId);
         
         return mapToResponse(category);
@@ -45,7 +54,7 @@ public class CategoryService {
 
     public List<CategoryResponse> getAllCategories() {
         String userId = userService.getCurrentUserId();
-        return categoryRepository.findByUserIdOrderByNameAsc(userId)
+        return categoryCache.findAll(userId)
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
@@ -53,31 +62,96 @@ public class CategoryService {
 
     public CategoryResponse getCategoryById(String id) {
         String userId = userService.getCurrentUserId();
-        Category category = categoryRepository.findByIdAndUserId(id, userId)
+        Category category = categoryCache.findById(userId, id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         return mapToResponse(category);
     }
 
-    public CategoryResponse updateCategory(String id, CreateCategoryRequest request) {
+    /**
+     * Update a category and, when a denormalized field changed, queue a background
+     * fan-out into its expenses. Returns the category and the queued job, if any.
+     */
+    public CategoryUpdateResult updateCategory(String id, UpdateCategoryRequest request) {
         String userId = userService.getCurrentUserId();
         Category category = categoryRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
 
+        if (request.getName() != null && !request.getName().equals(category.getName())
+                && categoryRepository.existsByNameAndUserId(request.getName(), userId)) {
+            throw new DuplicateResourceException("Category", "name", request.getName());
+        }
+
+        boolean denormalizedChanged =
+                (request.getName() != null && !request.getName().equals(category.getName()))
+                || (request.getColor() != null && !request.getColor().equals(category.getColor()))
+                || (request.getIcon() != null && !request.getIcon().equals(category.getIcon()));
+
         if (request.getName() != null) category.setName(request.getName());
         if (request.getDescription() != null) category.setDescription(request.getDescription());
         if (request.getColor() != null) category.setColor(request.getColor());
         if (request.getIcon() != null) category.setIcon(request.getIcon());
 
         category = categoryRepository.save(category);
-        return mapToResponse(category);
+        categoriesChanged(userId);
+
+        CategorySyncJob job = denormalizedChanged
+                ? categorySyncService.enqueue(userId, CategorySyncJob.Type.UPDATE, id, null)
+                : null;
+        return new CategoryUpdateResult(mapToResponse(category),
+                job != null ? categorySyncService.mapToResponse(job) : null);
     }
 
-    public void deleteCategory(String id) {
+    /**
+     * Delete a category and queue clearing it from the expenses that reference it.
+     */
+    public CategorySyncJobResponse deleteCategory(String id) {
         String userId = userService.getCurrentUserId();
         Category category = categoryRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         categoryRepository.delete(category);
+        categoriesChanged(userId);
         log.info("Category deleted: {}", id);
+        return categorySyncService.mapToResponse(
+                categorySyncService.enqueue(userId, CategorySyncJob.Type.DETACH, id, null));
+    }
+
+    /**
+     * Merge one category into another: the source is deleted right away, and its
+     * expenses are moved to the target in the background.
+     */
+    public CategorySyncJobResponse mergeCategory(String sourceId, String targetId) {
+        String userId = userService.getCurrentUserId();
+        if (sourceId.equals(targetId)) {
+            throw new BadRequestException("A category cannot be merged into itself");
+        }
+        Category source = categoryRepository.findByIdAndUserId(sourceId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", sourceId));
+        categoryRepository.findByIdAndUserId(targetId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", targetId));
+
+        CategorySyncJob job = categorySyncService.enqueue(userId, CategorySyncJob.Type.MERGE, sourceId, targetId);
+        categoryRepository.delete(source);
+        categoriesChanged(userId);
+        log.info("Category {} merged into {} for user: {}", sourceId, targetId, userId);
+        return categorySyncService.mapToResponse(job);
+    }
+
+    public CategorySyncJobResponse getSyncJob(String jobId) {
+        return categorySyncService.getJob(jobId);
+    }
+
+    /**
+     * Updated category together with the fan-out job it triggered, if any.
+     */
+    public record CategoryUpdateResult(CategoryResponse category, CategorySyncJobResponse syncJob) {
+    }
+
+    /**
+     * Publish a write to the user's categories to the cache and to ETag-validated reads.
+     */
+    private void categoriesChanged(String userId) {
+        categoryCache.invalidate(userId);
+        dataVersionService.bump(userId);
     }
 
     private CategoryResponse mapToResponse(Category category) {
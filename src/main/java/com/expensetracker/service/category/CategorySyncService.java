@@ -0,0 +1,334 @@
+package com.expensetracker.service.category;
+
+import com.expensetracker.dto.response.CategorySyncJobResponse;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.CategorySyncJob;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.JobStatus;
+import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.repository.CategorySyncJobRepository;
+import com.expensetracker.service.analytics.ExpenseChangeSet;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.service.user.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Propagates category changes into the denormalized category fields of expenses.
+ *
+ * Changes are queued as {@link CategorySyncJob}s and applied by a scheduled worker in
+ * throttled batches over the (userId, categoryId, expenseDate, _id) index. Each batch selects only expenses
+ * that are still stale and re-reads the category, so a job converges to the category's
+ * latest state, coalesces with later edits, and can resume after a crash.
+ */
+@Service
+@Slf4j
+public class CategorySyncService {
+
+    private static final String EXPENSE_CATEGORY_INDEX = "idx_expense_user_category_date";
+    // A running job may already have passed its last batch, so only queued jobs are reused
+    private static final List<JobStatus> REUSABLE_STATUSES = List.of(JobStatus.PENDING);
+
+    private final CategorySyncJobRepository jobRepository;
+    private final CategoryRepository categoryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final ExpenseRollupService expenseRollupService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration retention;
+
+    public CategorySyncService(CategorySyncJobRepository jobRepository,
+                               CategoryRepository categoryRepository,
+                               MongoTemplate mongoTemplate,
+                               UserService userService,
+                               DataVersionService dataVersionService,
+                               ExpenseRollupService expenseRollupService,
+                               @Value("${app.category-sync.batch-size:500}") int batchSize,
+                               @Value("${app.category-sync.batch-delay-ms:50}") long batchDelayMillis,
+                               @Value("${app.category-sync.lease:2m}") Duration lease,
+                               @Value("${app.category-sync.max-attempts:5}") int maxAttempts,
+                               @Value("${app.category-sync.retry-backoff:10s}") Duration retryBackoff,
+                               @Value("${app.category-sync.max-retry-backoff:10m}") Duration maxRetryBackoff,
+                               @Value("${app.category-sync.retention:7d}") Duration retention) {
+        this.jobRepository = jobRepository;
+        this.categoryRepository = categoryRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.dataVersionService = dataVersionService;
+        this.expenseRollupService = expenseRollupService;
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Queue a fan-out for the given category. An UPDATE or DETACH job still waiting
+     * for the same category is reused instead of queueing another.
+     */
+    public CategorySyncJob enqueue(String userId, CategorySyncJob.Type type, String sourceCategoryId,
+                                   String targetCategoryId) {
+        if (type != CategorySyncJob.Type.MERGE) {
+            CategorySyncJob active = jobRepository.findFirstByTypeAndSourceCategoryIdAndStatusIn(
+                    type, sourceCategoryId, REUSABLE_STATUSES).orElse(null);
+            if (active != null) {
+                return active;
+            }
+        }
+        CategorySyncJob job = jobRepository.save(CategorySyncJob.builder()
+                .userId(userId)
+                .type(type)
+                .sourceCategoryId(sourceCategoryId)
+                .targetCategoryId(targetCategoryId)
+                .totalExpenses(mongoTemplate.count(categoryQuery(userId, sourceCategoryId), Expense.class))
+                .createdAt(Instant.now())
+                .build());
+        log.info("Category sync job {} queued: {} {} for user: {}", job.getId(), type, sourceCategoryId, userId);
+        return job;
+    }
+
+    public CategorySyncJobResponse getJob(String jobId) {
+        String userId = userService.getCurrentUserId();
+        CategorySyncJob job = jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category sync job", "id", jobId));
+        return mapToResponse(job);
+    }
+
+    /**
+     * Claim and run queued jobs, including ones whose previous owner's lease has expired.
+     * Jobs released after a failure are skipped until their backoff has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.category-sync.poll-interval-ms:2000}")
+    public void processPendingJobs() {
+        try {
+            CategorySyncJob job;
+            while ((job = claimNext()) != null) {
+                runJob(job);
+            }
+        } catch (Exception e) {
+            log.warn("Could not claim category sync jobs: {}", e.getMessage());
+        }
+    }
+
+    private CategorySyncJob claimNext() {
+        Instant now = Instant.now();
+        Query query = Query.query(new Criteria().orOperator(
+                        Criteria.where("status").is(JobStatus.PENDING).orOperator(
+                                Criteria.where("nextAttemptAt").is(null),
+                                Criteria.where("nextAttemptAt").lte(now)),
+                        Criteria.where("status").is(JobStatus.RUNNING).and("leaseExpiresAt").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", JobStatus.RUNNING)
+                .set("leaseOwner", instanceId)
+                .set("leaseExpiresAt", now.plus(lease))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), CategorySyncJob.class);
+    }
+
+    private void runJob(CategorySyncJob job) {
+        if (job.getStartedAt() == null) {
+            mongoTemplate.updateFirst(jobQuery(job), new Update().set("startedAt", Instant.now()), CategorySyncJob.class);
+        }
+        try {
+            while (true) {
+                long updated = applyBatch(job);
+                if (updated < 0) {
+                    break;
+                }
+                if (updated > 0) {
+                    dataVersionService.bump(job.getUserId());
+                }
+                boolean stillOwned = mongoTemplate.updateFirst(ownedJobQuery(job), new Update()
+                                .inc("updatedExpenses", updated)
+                                .set("leaseExpiresAt", Instant.now().plus(lease)),
+                        CategorySyncJob.class).getMatchedCount() > 0;
+                if (!stillOwned) {
+                    log.warn("Category sync job {} lost its lease; leaving it to the new owner", job.getId());
+                    return;
+                }
+                if (batchDelayMillis > 0) {
+                    Thread.sleep(batchDelayMillis);
+                }
+            }
+            if (job.getAttempts() > 1) {
+                // A failed attempt may have applied batches without publishing them
+                dataVersionService.bump(job.getUserId());
+            }
+            mongoTemplate.updateFirst(ownedJobQuery(job), new Update()
+                    .set("status", JobStatus.COMPLETED)
+                    .set("completedAt", Instant.now())
+                    .set("expiresAt", Instant.now().plus(retention))
+                    .unset("leaseOwner")
+                    .unset("leaseExpiresAt"), CategorySyncJob.class);
+            log.info("Category sync job {} completed", job.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseOrFail(job, e);
+        } catch (Exception e) {
+            log.warn("Category sync job {} failed on attempt {}", job.getId(), job.getAttempts(), e);
+            releaseOrFail(job, e);
+        }
+    }
+
+    /**
+     * Update one batch of stale expenses. Returns the number modified, or -1 when none are left.
+     * MERGE and DETACH move expenses between categories, so their updates are conditioned on
+     * the versions read and the batch is moved between the rollups' category totals.
+     */
+    private long applyBatch(CategorySyncJob job) {
+        Criteria stale = categoryCriteria(job.getUserId(), job.getSourceCategoryId());
+        Update update = new Update()
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+
+        Category target = switch (job.getType()) {
+            case UPDATE -> categoryRepository.findByIdAndUserId(job.getSourceCategoryId(), job.getUserId()).orElse(null);
+            case MERGE -> categoryRepository.findByIdAndUserId(job.getTargetCategoryId(), job.getUserId()).orElse(null);
+            case DETACH -> null;
+        };
+        if (target == null && job.getType() == CategorySyncJob.Type.UPDATE) {
+            // Deleted since the job was queued; its DETACH job takes over
+            return -1;
+        }
+
+        if (target == null) {
+            update.unset("categoryId").unset("categoryName").unset("categoryColor").unset("categoryIcon");
+        } else {
+            update.set("categoryId", target.getId())
+                    .set("categoryName", target.getName())
+                    .set("categoryColor", target.getColor())
+                    .set("categoryIcon", target.getIcon());
+            if (job.getType() == CategorySyncJob.Type.UPDATE) {
+                stale.orOperator(
+                        Criteria.where("categoryName").ne(target.getName()),
+                        Criteria.where("categoryColor").ne(target.getColor()),
+                        Criteria.where("categoryIcon").ne(target.getIcon()));
+            }
+        }
+
+        Query batchQuery = Query.query(stale)
+                .limit(batchSize)
+                .withHint(EXPENSE_CATEGORY_INDEX);
+        boolean movesCategory = job.getType() != CategorySyncJob.Type.UPDATE;
+        if (movesCategory) {
+            batchQuery.fields().include("_id", "userId", "version", "amount", "expenseType", "expenseDate", "categoryId");
+        } else {
+            batchQuery.fields().include("_id");
+        }
+        List<Expense> batch = mongoTemplate.find(batchQuery, Expense.class);
+        if (batch.isEmpty()) {
+            return -1;
+        }
+        if (!movesCategory) {
+            Query updateQuery = Query.query(Criteria.where("_id").in(batch.stream().map(Expense::getId).toList()))
+                    .addCriteria(stale);
+            return mongoTemplate.updateMulti(updateQuery, update, Expense.class).getModifiedCount();
+        }
+
+        Query updateQuery = Query.query(new Criteria().andOperator(stale, new Criteria().orOperator(batch.stream()
+                .map(expense -> Criteria.where("_id").is(expense.getId()).and("version").is(expense.getVersion()))
+                .toArray(Criteria[]::new))));
+        long modified = mongoTemplate.updateMulti(updateQuery, update, Expense.class).getModifiedCount();
+
+        ExpenseChangeSet rollupChanges = new ExpenseChangeSet();
+        if (modified == batch.size()) {
+            for (Expense expense : batch) {
+                rollupChanges.remove(expense);
+                expense.setCategoryId(target != null ? target.getId() : null);
+                rollupChanges.add(expense);
+            }
+            expenseRollupService.apply(rollupChanges);
+        } else if (modified > 0) {
+            // Some expenses were written concurrently, so which ones moved is unknown
+            expenseRollupService.rebuild(job.getUserId(), rollupChanges.addAll(batch).months());
+        }
+        return modified;
+    }
+
+    private void releaseOrFail(CategorySyncJob job, Exception cause) {
+        Update update = job.getAttempts() >= maxAttempts
+                ? new Update()
+                        .set("status", JobStatus.FAILED)
+                        .set("failureReason", cause.getMessage())
+                        .set("completedAt", Instant.now())
+                        .set("expiresAt", Instant.now().plus(retention))
+                : new Update()
+                        .set("status", JobStatus.PENDING)
+                        .set("nextAttemptAt", Instant.now().plus(backoffAfter(job.getAttempts())));
+        try {
+            mongoTemplate.updateFirst(ownedJobQuery(job),
+                    update.unset("leaseOwner").unset("leaseExpiresAt"), CategorySyncJob.class);
+        } catch (Exception e) {
+            // The lease expires on its own and the job is retried
+            log.warn("Could not release category sync job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delay before the next attempt: the base backoff doubled per failed attempt, capped.
+     */
+    private Duration backoffAfter(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private static Criteria categoryCriteria(String userId, String categoryId) {
+        return Criteria.where("userId").is(userId).and("categoryId").is(categoryId);
+    }
+
+    private static Query categoryQuery(String userId, String categoryId) {
+        return Query.query(categoryCriteria(userId, categoryId)).withHint(EXPENSE_CATEGORY_INDEX);
+    }
+
+    private static Query jobQuery(CategorySyncJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId()));
+    }
+
+    private Query ownedJobQuery(CategorySyncJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId()).and("leaseOwner").is(instanceId));
+    }
+
+    CategorySyncJobResponse mapToResponse(CategorySyncJob job) {
+        return CategorySyncJobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .sourceCategoryId(job.getSourceCategoryId())
+                .targetCategoryId(job.getTargetCategoryId())
+                .status(job.getStatus())
+                .totalExpenses(job.getTotalExpenses())
+                .updatedExpenses(job.getUpdatedExpenses())
+                .failureReason(job.getFailureReason())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.exception.BadRequestException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.service.user.UserService;
+import com.expensetracker.util.CsvUtils;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a user's expenses straight from a Mongo cursor into the response body.
+ *
+ * Rows are written one at a time and never collected, so heap use does not depend on
+ * the number of rows exported. A client disconnect surfaces as an IOException on
+ * write, which closes the stream and with it the server-side cursor.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String CSV_HEADER =
+            "id,expenseDate,title,amount,expenseType,categoryId,categoryName,description,notes,recurring,recurringFrequency";
+
+    private final ExpenseRepository expenseRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Prepare an export for the current user. The user is resolved on the request thread;
+     * the returned body runs on the async executor.
+     */
+    public StreamingResponseBody export(ExportFormat format, LocalDate from, LocalDate to, boolean gzip) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        String userId = userService.getCurrentUserId();
+
+        return outputStream -> {
+            long rows = 0;
+            try (Stream<Expense> expenses = expenseRepository.streamByUserIdAndDateRange(userId, from, to);
+                 OutputStream out = gzip
+                         ? new GZIPOutputStream(outputStream, BUFFER_SIZE)
+                         : new BufferedOutputStream(outputStream, BUFFER_SIZE)) {
+                rows = format == ExportFormat.CSV
+                        ? writeCsv(expenses.iterator(), out)
+                        : writeNdjson(expenses.iterator(), out);
+            } catch (IOException e) {
+                log.debug("Export aborted for user {} after {} rows: {}", userId, rows, e.getMessage());
+                throw e;
+            }
+            log.info("Exported {} expenses as {} for user: {}", rows, format, userId);
+        };
+    }
+
+    private long writeNdjson(Iterator<Expense> expenses, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            while (expenses.hasNext()) {
+                Expense expense = expenses.next();
+                json.writeStartObject();
+                json.writeStringField("id", expense.getId());
+                json.writeStringField("expenseDate", expense.getExpenseDate() != null ? expense.getExpenseDate().toString() : null);
+                json.writeStringField("title", expense.getTitle());
+                json.writeNumberField("amount", expense.getAmount());
+                json.writeStringField("expenseType", expense.getExpenseType() != null ? expense.getExpenseType().name() : null);
+                json.writeStringField("categoryId", expense.getCategoryId());
+                json.writeStringField("categoryName", expense.getCategoryName());
+                json.writeStringField("description", expense.getDescription());
+                json.writeStringField("notes", expense.getNotes());
+                json.writeBooleanField("recurring", expense.isRecurring());
+                json.writeStringField("recurringFrequency", expense.getRecurringFrequency());
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    json.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Expense> expenses, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (expenses.hasNext()) {
+            Expense expense = expenses.next();
+            writer.write(CsvUtils.escape(expense.getId()));
+            writer.write(',');
+            writer.write(expense.getExpenseDate() != null ? expense.getExpenseDate().toString() : "");
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getTitle()));
+            writer.write(',');
+            writer.write(expense.getAmount() != null ? expense.getAmount().toPlainString() : "");
+            writer.write(',');
+            writer.write(expense.getExpenseType() != null ? expense.getExpenseType().name() : "");
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getCategoryId()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getCategoryName()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getDescription()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getNotes()));
+            writer.write(',');
+            writer.write(Boolean.toString(expense.isRecurring()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(expense.getRecurringFrequency()));
+            writer.write("\r\n");
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+}
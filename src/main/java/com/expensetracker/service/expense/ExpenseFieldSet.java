@@ -0,0 +1,103 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expense response properties selected with the {@code fields} query parameter, and the
+ * document fields that must be read to fill them.
+ *
+ * {@code fields} is a comma-separated list of property names, or {@code summary} for the
+ * compact projection used by list screens. Without it every property is returned.
+ */
+public final class ExpenseFieldSet {
+
+    public static final String SUMMARY = "summary";
+
+    private static final Map<String, List<String>> DOCUMENT_FIELDS = new LinkedHashMap<>();
+
+    static {
+        DOCUMENT_FIELDS.put("id", List.of("_id"));
+        DOCUMENT_FIELDS.put("title", List.of("title"));
+        DOCUMENT_FIELDS.put("description", List.of("description"));
+        DOCUMENT_FIELDS.put("amount", List.of("amount"));
+        DOCUMENT_FIELDS.put("expenseType", List.of("expenseType"));
+        DOCUMENT_FIELDS.put("expenseDate", List.of("expenseDate"));
+        DOCUMENT_FIELDS.put("category", List.of("categoryId", "categoryName", "categoryColor", "categoryIcon"));
+        DOCUMENT_FIELDS.put("receiptUrl", List.of("receiptUrl"));
+        DOCUMENT_FIELDS.put("receiptFilename", List.of("receiptFilename"));
+        DOCUMENT_FIELDS.put("notes", List.of("notes"));
+        DOCUMENT_FIELDS.put("recurring", List.of("recurring"));
+        DOCUMENT_FIELDS.put("recurringFrequency", List.of("recurringFrequency"));
+        DOCUMENT_FIELDS.put("nextDueDate", List.of("nextDueDate"));
+        DOCUMENT_FIELDS.put("recurringTemplateId", List.of("recurringTemplateId"));
+        DOCUMENT_FIELDS.put("version", List.of("version"));
+        DOCUMENT_FIELDS.put("createdAt", List.of("createdAt"));
+        DOCUMENT_FIELDS.put("updatedAt", List.of("updatedAt"));
+    }
+
+    // Keyset cursors are built from these, so they are always read
+    private static final List<String> CURSOR_FIELDS = List.of("_id", "expenseDate");
+
+    public static final ExpenseFieldSet ALL = new ExpenseFieldSet(DOCUMENT_FIELDS.keySet(), true);
+
+    public static final ExpenseFieldSet COMPACT = new ExpenseFieldSet(
+            Set.of("id", "title", "amount", "expenseType", "expenseDate", "category"), false);
+
+    private final Set<String> properties;
+    private final boolean all;
+
+    private ExpenseFieldSet(Set<String> properties, boolean all) {
+        this.properties = properties;
+        this.all = all;
+    }
+
+    public static ExpenseFieldSet from(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        if (fields.trim().equalsIgnoreCase(SUMMARY)) {
+            return COMPACT;
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String property = field.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            if (!DOCUMENT_FIELDS.containsKey(property)) {
+                throw new BadRequestException("Unknown expense field: " + property
+                        + ". Use " + SUMMARY + " or any of " + String.join(", ", DOCUMENT_FIELDS.keySet()));
+            }
+            properties.add(property);
+        }
+        if (properties.isEmpty()) {
+            return ALL;
+        }
+        return new ExpenseFieldSet(properties, properties.size() == DOCUMENT_FIELDS.size());
+    }
+
+    public boolean includes(String property) {
+        return all || properties.contains(property);
+    }
+
+    /**
+     * Document fields to project, or null when the whole document is needed.
+     */
+    public List<String> documentFields() {
+        if (all) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>(CURSOR_FIELDS);
+        for (String property : properties) {
+            fields.addAll(DOCUMENT_FIELDS.get(property));
+        }
+        return new ArrayList<>(fields);
+    }
+}
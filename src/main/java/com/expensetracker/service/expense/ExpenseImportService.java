@@ -0,0 +1,425 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.dto.request.CreateExpenseRequest;
+import com.expensetracker.dto.response.ImportJobResponse;
+import com.expensetracker.exception.BadRequestException;
+import com.expensetracker.exception.FileStorageException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.exception.ServiceUnavailableException;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.ImportJob;
+import com.expensetracker.model.JobStatus;
+import com.expensetracker.repository.ImportJobRepository;
+import com.expensetracker.service.analytics.ExpenseChangeSet;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import com.expensetracker.service.category.CategoryCache;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.service.user.UserService;
+import com.expensetracker.util.CsvReader;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Imports expenses from an uploaded CSV file in the background.
+ *
+ * The upload is spooled to a temporary file and parsed one record at a time on a small,
+ * bounded worker pool. Category names are resolved through a single per-user map built
+ * up front from the {@link CategoryCache}, so imports accept exactly the categories that
+ * single creates do, and valid rows are written with unordered bulk inserts of {@code batchSize}.
+ * Invalid rows are recorded in the job's error report instead of aborting the import.
+ */
+@Service
+@Slf4j
+public class ExpenseImportService implements DisposableBean {
+
+    private static final Map<String, String> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("title", "title"),
+            Map.entry("amount", "amount"),
+            Map.entry("expensedate", "expenseDate"),
+            Map.entry("date", "expenseDate"),
+            Map.entry("expensetype", "expenseType"),
+            Map.entry("type", "expenseType"),
+            Map.entry("categoryid", "categoryId"),
+            Map.entry("categoryname", "category"),
+            Map.entry("category", "category"),
+            Map.entry("description", "description"),
+            Map.entry("notes", "notes"),
+            Map.entry("recurring", "recurring"),
+            Map.entry("recurringfrequency", "recurringFrequency"));
+
+    private final ImportJobRepository importJobRepository;
+    private final CategoryCache categoryCache;
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final ExpenseRollupService expenseRollupService;
+    private final Validator validator;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final Duration retention;
+
+    public ExpenseImportService(ImportJobRepository importJobRepository,
+                                CategoryCache categoryCache,
+                                MongoTemplate mongoTemplate,
+                                UserService userService,
+                                DataVersionService dataVersionService,
+                                ExpenseRollupService expenseRollupService,
+                                Validator validator,
+                                @Value("${app.import.batch-size:1000}") int batchSize,
+                                @Value("${app.import.threads:2}") int threads,
+                                @Value("${app.import.queue-capacity:16}") int queueCapacity,
+                                @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors,
+                                @Value("${app.import.retention:7d}") Duration retention) {
+        this.importJobRepository = importJobRepository;
+        this.categoryCache = categoryCache;
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.dataVersionService = dataVersionService;
+        this.expenseRollupService = expenseRollupService;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.retention = retention;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "expense-import-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Accept an upload for the current user and queue it for import.
+     */
+    public ImportJobResponse startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("CSV file is required");
+        }
+        String userId = userService.getCurrentUserId();
+
+        Path spool;
+        try {
+            spool = Files.createTempFile("expense-import-", ".csv");
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new FileStorageException("Could not store uploaded file", e);
+        }
+
+        Instant now = Instant.now();
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .userId(userId)
+                .filename(file.getOriginalFilename())
+                .createdAt(now)
+                .expiresAt(now.plus(retention))
+                .build());
+
+        try {
+            executor.execute(() -> runImport(job.getId(), userId, spool));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(spool);
+            importJobRepository.deleteById(job.getId());
+            throw new ServiceUnavailableException("Too many imports in progress. Please retry shortly.");
+        }
+
+        log.info("Import job {} queued for user: {}", job.getId(), userId);
+        return mapToResponse(job);
+    }
+
+    /**
+     * Current status and error report of one of the current user's import jobs.
+     */
+    public ImportJobResponse getImportJob(String jobId) {
+        String userId = userService.getCurrentUserId();
+        ImportJob job = importJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job", "id", jobId));
+        return mapToResponse(job);
+    }
+
+    private void runImport(String jobId, String userId, Path spool) {
+        ImportProgress progress = new ImportProgress();
+        try {
+            mongoTemplate.updateFirst(jobQuery(jobId),
+                    new Update().set("status", JobStatus.RUNNING).set("startedAt", Instant.now()),
+                    ImportJob.class);
+
+            Map<String, Category> categoriesByName = new HashMap<>();
+            Map<String, Category> categoriesById = new HashMap<>();
+            loadCategories(userId, categoriesByName, categoriesById);
+
+            try (CsvReader reader = new CsvReader(Files.newBufferedReader(spool, StandardCharsets.UTF_8))) {
+                Map<String, Integer> columns = readHeader(reader);
+                List<Expense> batch = new ArrayList<>(batchSize);
+                List<Long> batchLines = new ArrayList<>(batchSize);
+
+                List<String> record;
+                while ((record = reader.next()) != null) {
+                    long line = reader.getRecordLine();
+                    progress.processed++;
+                    try {
+                        batch.add(toExpense(record, columns, userId, categoriesByName, categoriesById));
+                        batchLines.add(line);
+                    } catch (BadRequestException e) {
+                        progress.reject(line, e.getMessage());
+                    }
+                    if (batch.size() >= batchSize) {
+                        flush(jobId, batch, batchLines, progress);
+                    }
+                }
+                flush(jobId, batch, batchLines, progress);
+            }
+
+            mongoTemplate.updateFirst(jobQuery(jobId), progress.toUpdate()
+                    .set("status", JobStatus.COMPLETED)
+                    .set("errors", progress.errors)
+                    .set("completedAt", Instant.now())
+                    .set("expiresAt", Instant.now().plus(retention)), ImportJob.class);
+            log.info("Import job {} completed for user {}: {} imported, {} failed",
+                    jobId, userId, progress.imported, progress.failed);
+        } catch (Exception e) {
+            log.warn("Import job {} failed for user {}", jobId, userId, e);
+            mongoTemplate.updateFirst(jobQuery(jobId), progress.toUpdate()
+                    .set("status", JobStatus.FAILED)
+                    .set("errors", progress.errors)
+                    .set("failureReason", e instanceof BadRequestException ? e.getMessage() : "Import failed unexpectedly")
+                    .set("completedAt", Instant.now())
+                    .set("expiresAt", Instant.now().plus(retention)), ImportJob.class);
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    private void loadCategories(String userId, Map<String, Category> byName, Map<String, Category> byId) {
+        byId.putAll(categoryCache.byId(userId));
+        for (Category category : categoryCache.findAll(userId)) {
+            byName.putIfAbsent(normalize(category.getName()), category);
+        }
+    }
+
+    private Map<String, Integer> readHeader(CsvReader reader) throws IOException {
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new BadRequestException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            String column = HEADER_ALIASES.get(name);
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        for (String required : List.of("title", "amount", "expenseDate")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Expense toExpense(List<String> record, Map<String, Integer> columns, String userId,
+                              Map<String, Category> categoriesByName, Map<String, Category> categoriesById) {
+        CreateExpenseRequest request = CreateExpenseRequest.builder()
+                .title(value(record, columns, "title"))
+                .description(value(record, columns, "description"))
+                .notes(value(record, columns, "notes"))
+                .recurringFrequency(value(record, columns, "recurringFrequency"))
+                .recurring(Boolean.parseBoolean(value(record, columns, "recurring")))
+                .build();
+
+        String amount = value(record, columns, "amount");
+        if (amount != null) {
+            try {
+                request.setAmount(new BigDecimal(amount));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid amount: " + amount);
+            }
+        }
+
+        String date = value(record, columns, "expenseDate");
+        if (date != null) {
+            try {
+                request.setExpenseDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid expenseDate (expected yyyy-MM-dd): " + date);
+            }
+        }
+
+        String type = value(record, columns, "expenseType");
+        try {
+            request.setExpenseType(type == null ? ExpenseType.EXPENSE : ExpenseType.valueOf(type.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid expenseType: " + type);
+        }
+
+        Category category = null;
+        String categoryId = value(record, columns, "categoryId");
+        String categoryName = value(record, columns, "category");
+        if (categoryId != null) {
+            category = categoriesById.get(categoryId);
+            if (category == null) {
+                throw new BadRequestException("Unknown categoryId: " + categoryId);
+            }
+        } else if (categoryName != null) {
+            category = categoriesByName.get(normalize(categoryName));
+            if (category == null) {
+                throw new BadRequestException("Unknown category: " + categoryName);
+            }
+        }
+
+        Set<ConstraintViolation<CreateExpenseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        Expense expense = ExpenseService.newExpense(request, userId, category);
+        // Bulk inserts bypass the repository's version initialization
+        expense.setVersion(0L);
+        return expense;
+    }
+
+    private void flush(String jobId, List<Expense> batch, List<Long> batchLines, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int inserted;
+        Set<Integer> failedIndexes = Set.of();
+        try {
+            inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class)
+                    .insert(batch)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            inserted = e.getResult().getInsertedCount();
+            failedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                progress.reject(batchLines.get(error.getIndex()), error.getMessage());
+            }
+        }
+        if (inserted > 0) {
+            progress.imported += inserted;
+            ExpenseChangeSet rollupChanges = new ExpenseChangeSet();
+            for (int i = 0; i < batch.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    rollupChanges.add(batch.get(i));
+                }
+            }
+            expenseRollupService.apply(rollupChanges);
+            dataVersionService.bump(batch.get(0).getUserId());
+        }
+        batch.clear();
+        batchLines.clear();
+        mongoTemplate.updateFirst(jobQuery(jobId), progress.toUpdate(), ImportJob.class);
+    }
+
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Query jobQuery(String jobId) {
+        return Query.query(Criteria.where("_id").is(jobId));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete import spool file {}", path, e);
+        }
+    }
+
+    private ImportJobResponse mapToResponse(ImportJob job) {
+        List<ImportJobResponse.RowError> errors = job.getErrors() == null ? List.of() : job.getErrors().stream()
+                .map(error -> new ImportJobResponse.RowError(error.line(), error.message()))
+                .collect(Collectors.toList());
+        return ImportJobResponse.builder()
+                .id(job.getId())
+                .filename(job.getFilename())
+                .status(job.getStatus())
+                .processedRows(job.getProcessedRows())
+                .importedRows(job.getImportedRows())
+                .failedRows(job.getFailedRows())
+                .errors(errors)
+                .errorsTruncated(job.getFailedRows() > errors.size())
+                .failureReason(job.getFailureReason())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Running counters for one import; only touched by its worker thread.
+     */
+    private final class ImportProgress {
+
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<ImportJob.RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportJob.RowError(line, message));
+            }
+        }
+
+        private Update toUpdate() {
+            return new Update()
+                    .set("processedRows", processed)
+                    .set("importedRows", imported)
+                    .set("failedRows", failed);
+        }
+    }
+}
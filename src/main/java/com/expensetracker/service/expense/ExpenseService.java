@@ -1,23 +1,54 @@
 package com.expensetracker.service.expense;
 
+import com.expensetracker.dto.request.BatchExpenseRequest;
 import com.expensetracker.dto.request.CreateExpenseRequest;
+import com.expensetracker.dto.request.ExpenseFilterRequest;
+import com.expensetracker.dto.request.UpdateExpenseRequest;
+import com.expensetracker.dto.response.BatchExpenseResponse;
 import com.expensetracker.dto.response.CategoryResponse;
 import com.expensetracker.dto.response.ExpenseResponse;
+import com.expensetracker.dto.response.PagedResponse;
+import com.expensetracker.exception.BadRequestException;
+import com.expensetracker.exception.ConflictException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
-import com.expensetracker.repository.CategoryRepository;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseRepositoryCustom;
+import com.expensetracker.service.analytics.ExpenseChangeSet;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import com.expensetracker.service.category.CategoryCache;
+import com.expensetracker.service.user.DataVersionService;
 import com.expensetracker.service.user.UserService;
+import com.expensetracker.util.KeysetCursor;
+import com.expensetracker.util.RecurringSchedule;
+import com.expensetracker.util.SearchTokenizer;
+import com.expensetracker.util.TextSearchCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,48 +56,107 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ExpenseService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PREFIX_EXPANSIONS = 20;
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+
+    private final Cache<String, Long> expenseCounts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
     private final ExpenseRepository expenseRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final ExpenseRollupService expenseRollupService;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
 
     public ExpenseResponse createExpense(CreateExpenseRequest request) {
         String userId = userService.getCurrentUserId();
 
-        Expense expense = Expense.builder()
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .amount(request.getAmount())
-                .expenseType(request.getExpenseType())
-                .expenseDate(request.getExpenseDate())
-                .notes(request.getNotes())
-                .recurring(request.isRecurring())
-                .recurringFrequency(request.getRecurringFrequency())
-                .userId(userId)
-                .build();
-
-        // Set category if provided
+        Category category = null;
         if (request.getCategoryId() != null) {
-            Category category = categoryRepository.findByIdAndUserId(request.getCategoryId(), userId)
+            category = categoryCache.findById(userId, request.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
-            expense.setCategoryId(category.getId());
-            expense.setCategoryName(category.getName());
-            expense.setCategoryColor(category.getColor());
-            expense.setCategoryIcon(category.getIcon());
         }
 
-        expense = expenseRepository.save(expense);
+        Expense expense = expenseRepository.save(newExpense(request, userId, category));
+        dataChanged(userId, new ExpenseChangeSet().add(expense));
         log.info("Expense created: {} for user: {}", expense.getTitle(), userId);
         
         return mapToResponse(expense);
     }
 
-    public List<ExpenseResponse> getAllExpenses() {
+    /**
+     * List expenses newest first using keyset pagination over (expenseDate, _id).
+     * The total is only computed when requested, and is then served from a short-lived cache.
+     */
+    public PagedResponse<ExpenseResponse> getExpenses(String cursor, int limit, boolean includeTotal, String fields) {
+        ExpenseFieldSet fieldSet = ExpenseFieldSet.from(fields);
+        String userId = userService.getCurrentUserId();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        List<Expense> expenses = expenseRepository.findPage(userId, after, pageSize + 1, fieldSet.documentFields());
+        return toCursorPage(expenses, pageSize, after == null,
+                includeTotal ? expenseCounts.get(userId, expenseRepository::countByUserId) : null, fieldSet);
+    }
+
+    /**
+     * Search expenses by any combination of filters, newest first, with keyset pagination.
+     */
+    public PagedResponse<ExpenseResponse> searchExpenses(ExpenseFilterRequest filter, String cursor, int limit,
+                                                         String fields) {
+        validateFilter(filter);
+        ExpenseFieldSet fieldSet = ExpenseFieldSet.from(fields);
+        String userId = userService.getCurrentUserId();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        List<Expense> expenses = expenseRepository.findPage(userId, filter, after, pageSize + 1,
+                fieldSet.documentFields());
+        return toCursorPage(expenses, pageSize, after == null, null, fieldSet);
+    }
+
+    /**
+     * Full-text search over title, description and notes, most relevant first, with keyset
+     * pagination. Unless the query ends in whitespace its last word is treated as a prefix
+     * and expanded to the user's most frequent words starting with it.
+     */
+    public PagedResponse<ExpenseResponse> textSearchExpenses(String q, String cursor, int limit, String fields) {
+        ExpenseFieldSet fieldSet = ExpenseFieldSet.from(fields);
+        List<String> terms = SearchTokenizer.tokenize(q);
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Search query must contain at least one word of "
+                    + SearchTokenizer.MIN_TOKEN_LENGTH + " or more characters");
+        }
         String userId = userService.getCurrentUserId();
-        Pageable pageable = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "expenseDate"));
-        Page<Expense> expenses = expenseRepository.findByUserId(userId, pageable);
-        return expenses.getContent().stream()
-                .map(this::mapToResponse)
+        TextSearchCursor after = TextSearchCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        Set<String> words = new LinkedHashSet<>(terms);
+        if (Character.isLetterOrDigit(q.charAt(q.length() - 1))) {
+            String prefix = terms.get(terms.size() - 1);
+            words.addAll(expenseRepository.findSearchTermsByPrefix(userId, prefix, MAX_PREFIX_EXPANSIONS));
+        }
+
+        List<ExpenseRepositoryCustom.ScoredExpense> matches =
+                expenseRepository.textSearch(userId, String.join(" ", words), after, pageSize + 1,
+                        fieldSet.documentFields());
+        boolean hasNext = matches.size() > pageSize;
+        List<ExpenseRepositoryCustom.ScoredExpense> page = hasNext ? matches.subList(0, pageSize) : matches;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ExpenseRepositoryCustom.ScoredExpense last = page.get(page.size() - 1);
+            nextCursor = new TextSearchCursor(last.score(), new ObjectId(last.expense().getId())).encode();
+        }
+        List<ExpenseResponse> content = page.stream()
+                .map(match -> mapToResponse(match.expense(), fieldSet))
                 .collect(Collectors.toList());
+        return PagedResponse.ofCursor(content, pageSize, after == null, nextCursor, null);
     }
 
     public ExpenseResponse getExpenseById(String id) {
@@ -76,10 +166,19 @@ public class ExpenseService {
         return mapToResponse(expense);
     }
 
-    public ExpenseResponse updateExpense(String id, CreateExpenseRequest request) {
+    public ExpenseResponse updateExpense(String id, CreateExpenseRequest request, Long expectedVersion) {
         String userId = userService.getCurrentUserId();
         Expense expense = expenseRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", id));
+        if (expectedVersion != null && !expectedVersion.equals(expense.getVersion())) {
+            throw new ConflictException("Expense " + id + " has been modified since version " + expectedVersion);
+        }
+        ExpenseChangeSet rollupChanges = new ExpenseChangeSet().remove(expense);
+
+        boolean scheduleChanged = request.isRecurring() != expense.isRecurring()
+                || (request.getExpenseDate() != null && !request.getExpenseDate().equals(expense.getExpenseDate()))
+                || (request.getRecurringFrequency() != null
+                        && !request.getRecurringFrequency().equals(expense.getRecurringFrequency()));
 
         if (request.getTitle() != null) expense.setTitle(request.getTitle());
         if (request.getDescription() != null) expense.setDescription(request.getDescription());
@@ -89,31 +188,516 @@ public class ExpenseService {
         if (request.getNotes() != null) expense.setNotes(request.getNotes());
         expense.setRecurring(request.isRecurring());
         if (request.getRecurringFrequency() != null) expense.setRecurringFrequency(request.getRecurringFrequency());
+        expense.setSearchTerms(SearchTokenizer.tokenize(expense.getTitle(), expense.getDescription(), expense.getNotes()));
+        if (scheduleChanged) {
+            // Schedule changes only affect occurrences from today on
+            RecurringSchedule.apply(expense, LocalDate.now());
+        }
 
         if (request.getCategoryId() != null) {
-            Category category = categoryRepository.findByIdAndUserId(request.getCategoryId(), userId)
+            Category category = categoryCache.findById(userId, request.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
-            expense.setCategoryId(category.getId());
-            expense.setCategoryName(category.getName());
-            expense.setCategoryColor(category.getColor());
-            expense.setCategoryIcon(category.getIcon());
+            applyCategory(expense, category);
         }
 
         expense = expenseRepository.save(expense);
+        dataChanged(userId, rollupChanges.add(expense));
         return mapToResponse(expense);
     }
 
+    /**
+     * Apply only the supplied fields with a single atomic write scoped to the user. When
+     * {@code expectedVersion} is given the write only succeeds against that version,
+     * otherwise a 409 is raised.
+     * <p>
+     * Changes that leave the derived fields alone are one findAndModify that returns the
+     * document as it was before the update, for the rollups; a second lookup happens only
+     * on the failure path. Changes to the text or the recurrence need the stored document
+     * to derive the search terms and schedule from, so it is read first and the derived
+     * fields go into the same {@code $set}, conditioned on the version that was read.
+     */
+    public ExpenseResponse patchExpense(String id, UpdateExpenseRequest changes, Long expectedVersion) {
+        String userId = userService.getCurrentUserId();
+
+        Category category = null;
+        if (changes.getCategoryId() != null) {
+            category = categoryCache.findById(userId, changes.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", changes.getCategoryId()));
+        }
+
+        if (changesText(changes) || changesSchedule(changes)) {
+            return patchWithDerivedFields(userId, id, changes, category, expectedVersion);
+        }
+
+        Criteria criteria = Criteria.where("_id").is(id).and("userId").is(userId);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Expense expense = mongoTemplate.findAndModify(Query.query(criteria), toUpdate(changes, category, now),
+                FindAndModifyOptions.options().returnNew(false), Expense.class);
+
+        if (expense == null) {
+            if (expectedVersion != null && expenseRepository.findByIdAndUserId(id, userId).isPresent()) {
+                throw new ConflictException("Expense " + id + " has been modified since version " + expectedVersion);
+            }
+            throw new ResourceNotFoundException("Expense", "id", id);
+        }
+        ExpenseChangeSet rollupChanges = new ExpenseChangeSet().remove(expense);
+        applyChanges(expense, changes, category, now);
+        dataChanged(userId, rollupChanges.add(expense));
+        return mapToResponse(expense);
+    }
+
+    /**
+     * Read, merge and write back conditioned on the version that was read. Without an
+     * {@code expectedVersion} a write that lost a race is retried against the newer document.
+     */
+    private ExpenseResponse patchWithDerivedFields(String userId, String id, UpdateExpenseRequest changes,
+                                                   Category category, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            Expense expense = expenseRepository.findByIdAndUserId(id, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", id));
+            if (expectedVersion != null && !expectedVersion.equals(expense.getVersion())) {
+                throw new ConflictException("Expense " + id + " has been modified since version " + expectedVersion);
+            }
+            Query query = Query.query(Criteria.where("_id").is(id).and("userId").is(userId)
+                    .and("version").is(expense.getVersion()));
+            ExpenseChangeSet rollupChanges = new ExpenseChangeSet().remove(expense);
+
+            LocalDateTime now = LocalDateTime.now();
+            Update update = toUpdate(changes, category, now);
+            applyChanges(expense, changes, category, now);
+            setDerivedFields(update, expense, changes, LocalDate.now());
+
+            if (mongoTemplate.updateFirst(query, update, Expense.class).getMatchedCount() == 1) {
+                dataChanged(userId, rollupChanges.add(expense));
+                return mapToResponse(expense);
+            }
+            if (attempt == MAX_PATCH_ATTEMPTS) {
+                throw new ConflictException("Expense " + id + " is being modified concurrently");
+            }
+            // The next read reports a deleted expense or a version the caller no longer holds
+        }
+    }
+
     public void deleteExpense(String id) {
         String userId = userService.getCurrentUserId();
-        Expense expense = expenseRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", id));
-        expenseRepository.delete(expense);
+        Expense expense = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(id).and("userId").is(userId)), Expense.class);
+        if (expense == null) {
+            throw new ResourceNotFoundException("Expense", "id", id);
+        }
+        dataChanged(userId, new ExpenseChangeSet().remove(expense));
         log.info("Expense deleted: {}", id);
     }
 
+    /**
+     * Publish a write to the user's expenses to the rollups, ETag-validated reads
+     * and cached totals. Rollups go first so a client revalidating on the new version sees them.
+     */
+    private void dataChanged(String userId, ExpenseChangeSet rollupChanges) {
+        expenseRollupService.apply(rollupChanges);
+        expenseCounts.invalidate(userId);
+        dataVersionService.bump(userId);
+    }
+
+    /**
+     * Build a new, unsaved expense owned by the given user.
+     */
+    static Expense newExpense(CreateExpenseRequest request, String userId, Category category) {
+        Expense expense = Expense.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .amount(request.getAmount())
+                .expenseType(request.getExpenseType())
+                .expenseDate(request.getExpenseDate())
+                .notes(request.getNotes())
+                .recurring(request.isRecurring())
+                .recurringFrequency(request.getRecurringFrequency())
+                .searchTerms(SearchTokenizer.tokenize(request.getTitle(), request.getDescription(), request.getNotes()))
+                .userId(userId)
+                .build();
+        if (category != null) {
+            applyCategory(expense, category);
+        }
+        // A template dated in the past also generates the occurrences it has missed
+        RecurringSchedule.apply(expense, expense.getExpenseDate() != null ? expense.getExpenseDate() : LocalDate.now());
+        return expense;
+    }
+
+    /**
+     * Copy the denormalized category fields onto an expense.
+     */
+    static void applyCategory(Expense expense, Category category) {
+        expense.setCategoryId(category.getId());
+        expense.setCategoryName(category.getName());
+        expense.setCategoryColor(category.getColor());
+        expense.setCategoryIcon(category.getIcon());
+    }
+
+    /**
+     * Apply a mixed list of create, update and delete operations in one unordered bulk write
+     * scoped to the current user. Targets are resolved with one projected query up front and
+     * categories come from the category cache; updates carry their derived fields in the same
+     * {@code $set}. Every operation gets its own result and a bad item never fails the others;
+     * a target changed or deleted after it was read is reported as CONFLICT or NOT_FOUND.
+     */
+    public BatchExpenseResponse executeBatch(BatchExpenseRequest request) {
+        String userId = userService.getCurrentUserId();
+        List<BatchExpenseRequest.Operation> operations = request.getOperations();
+        BatchExpenseResponse.ItemResult[] results = new BatchExpenseResponse.ItemResult[operations.size()];
+
+        Set<String> targetIds = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchExpenseRequest.Operation operation = operations.get(i);
+            String error = validateOperation(operation, targetIds);
+            if (error != null) {
+                results[i] = batchResult(i, operation, operation != null ? operation.getId() : null,
+                        BatchExpenseResponse.ItemStatus.INVALID, error);
+            }
+        }
+
+        Map<String, Expense> snapshots = expenseRepository.findSnapshots(userId, targetIds);
+        Map<String, Category> categories = categoryCache.byId(userId);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+        List<Integer> bulkIndexes = new ArrayList<>();
+        Map<Integer, Expense> created = new HashMap<>();
+        // Rollup deltas of each UPDATE and DELETE, applied only once the write is known to have happened
+        Map<Integer, ExpenseChangeSet> targetChanges = new HashMap<>();
+        // Stored dates have millisecond precision; truncating lets a re-read recognize this write
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDate today = LocalDate.now();
+
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchExpenseRequest.Operation operation = operations.get(i);
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    CreateExpenseRequest payload = operation.getExpense();
+                    Category category = payload.getCategoryId() != null ? categories.get(payload.getCategoryId()) : null;
+                    if (payload.getCategoryId() != null && category == null) {
+                        results[i] = batchResult(i, operation, null, BatchExpenseResponse.ItemStatus.NOT_FOUND,
+                                "Category not found with id: '" + payload.getCategoryId() + "'");
+                        continue;
+                    }
+                    Expense expense = newExpense(payload, userId, category);
+                    // Assign the id up front so the result can report it without reading back
+                    expense.setId(new ObjectId().toHexString());
+                    // Bulk inserts bypass the repository's version initialization
+                    expense.setVersion(0L);
+                    bulk.insert(expense);
+                    created.put(i, expense);
+                }
+                case UPDATE, DELETE -> {
+                    Expense snapshot = snapshots.get(operation.getId());
+                    if (snapshot == null) {
+                        results[i] = batchResult(i, operation, operation.getId(), BatchExpenseResponse.ItemStatus.NOT_FOUND,
+                                "Expense not found with id: '" + operation.getId() + "'");
+                        continue;
+                    }
+                    // Conditioned on the version read, so the deltas and derived fields computed
+                    // from the snapshot are exactly what the write changes
+                    Query target = Query.query(Criteria.where("_id").is(operation.getId()).and("userId").is(userId)
+                            .and("version").is(snapshot.getVersion()));
+                    ExpenseChangeSet changes = new ExpenseChangeSet().remove(snapshot);
+                    if (operation.getOp() == BatchExpenseRequest.OperationType.DELETE) {
+                        bulk.remove(target);
+                    } else {
+                        String categoryId = operation.getChanges().getCategoryId();
+                        Category category = categoryId != null ? categories.get(categoryId) : null;
+                        if (categoryId != null && category == null) {
+                            results[i] = batchResult(i, operation, operation.getId(), BatchExpenseResponse.ItemStatus.NOT_FOUND,
+                                    "Category not found with id: '" + categoryId + "'");
+                            continue;
+                        }
+                        Update update = toUpdate(operation.getChanges(), category, now);
+                        applyChanges(snapshot, operation.getChanges(), category, now);
+                        setDerivedFields(update, snapshot, operation.getChanges(), today);
+                        bulk.updateOne(target, update);
+                        changes.add(snapshot);
+                    }
+                    targetChanges.put(i, changes);
+                }
+            }
+            bulkIndexes.add(i);
+        }
+
+        BulkWriteResult bulkResult = null;
+        if (!bulkIndexes.isEmpty()) {
+            try {
+                bulkResult = bulk.execute();
+            } catch (BulkOperationException e) {
+                bulkResult = e.getResult();
+                for (BulkWriteError writeError : e.getErrors()) {
+                    int i = bulkIndexes.get(writeError.getIndex());
+                    BatchExpenseRequest.Operation operation = operations.get(i);
+                    Expense expense = created.remove(i);
+                    targetChanges.remove(i);
+                    results[i] = batchResult(i, operation, expense != null ? expense.getId() : operation.getId(),
+                            BatchExpenseResponse.ItemStatus.FAILED, writeError.getMessage());
+                }
+            }
+        }
+
+        ExpenseChangeSet rollupChanges = new ExpenseChangeSet();
+        created.values().forEach(rollupChanges::add);
+        targetChanges.values().forEach(rollupChanges::include);
+        if (bulkResult != null && !allTargetsWritten(bulkResult, operations, targetChanges.keySet())) {
+            // Some targets changed or vanished after the snapshot; only those items lose their success
+            resolveMissedTargets(userId, operations, targetChanges.keySet(), snapshots, now, bulkResult, results);
+            Set<YearMonth> months = rollupChanges.months();
+            log.warn("Expense batch for user {} raced with another write; rebuilding rollups for {}", userId, months);
+            expenseRollupService.rebuild(userId, months);
+            rollupChanges = new ExpenseChangeSet();
+        }
+        if (!bulkIndexes.isEmpty()) {
+            dataChanged(userId, rollupChanges);
+        }
+
+        for (int i : bulkIndexes) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchExpenseRequest.Operation operation = operations.get(i);
+            results[i] = switch (operation.getOp()) {
+                case CREATE -> {
+                    BatchExpenseResponse.ItemResult result = batchResult(i, operation, created.get(i).getId(),
+                            BatchExpenseResponse.ItemStatus.CREATED, null);
+                    result.setExpense(mapToResponse(created.get(i)));
+                    yield result;
+                }
+                case UPDATE -> batchResult(i, operation, operation.getId(), BatchExpenseResponse.ItemStatus.UPDATED, null);
+                case DELETE -> batchResult(i, operation, operation.getId(), BatchExpenseResponse.ItemStatus.DELETED, null);
+            };
+        }
+
+        List<BatchExpenseResponse.ItemResult> resultList = Arrays.asList(results);
+        int succeeded = (int) resultList.stream().filter(BatchExpenseResponse.ItemResult::isSuccess).count();
+        log.info("Expense batch for user {}: {} succeeded, {} failed", userId, succeeded, results.length - succeeded);
+        return BatchExpenseResponse.builder()
+                .results(resultList)
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .build();
+    }
+
+    /**
+     * Whether every UPDATE and DELETE that reached the bulk write matched its target.
+     */
+    private static boolean allTargetsWritten(BulkWriteResult bulkResult, List<BatchExpenseRequest.Operation> operations,
+                                             Set<Integer> targetIndexes) {
+        long updates = targetIndexes.stream()
+                .filter(i -> operations.get(i).getOp() == BatchExpenseRequest.OperationType.UPDATE)
+                .count();
+        return bulkResult.getMatchedCount() == updates
+                && bulkResult.getDeletedCount() == targetIndexes.size() - updates;
+    }
+
+    /**
+     * Find out which targets the bulk write missed, with one projected re-read, and record
+     * NOT_FOUND or CONFLICT for them. An update is recognized as applied by the version and
+     * timestamp it wrote; a missing target of a DELETE counts as deleted by this batch only
+     * when the deleted count accounts for every missing one.
+     */
+    private void resolveMissedTargets(String userId, List<BatchExpenseRequest.Operation> operations,
+                                      Set<Integer> targetIndexes, Map<String, Expense> written, LocalDateTime now,
+                                      BulkWriteResult bulkResult, BatchExpenseResponse.ItemResult[] results) {
+        Map<String, Expense> current = expenseRepository.findSnapshots(userId, targetIndexes.stream()
+                .map(i -> operations.get(i).getId())
+                .collect(Collectors.toSet()));
+        long deletesMissing = targetIndexes.stream()
+                .filter(i -> operations.get(i).getOp() == BatchExpenseRequest.OperationType.DELETE)
+                .filter(i -> !current.containsKey(operations.get(i).getId()))
+                .count();
+        boolean deletesAccounted = deletesMissing == bulkResult.getDeletedCount();
+
+        for (int i : targetIndexes) {
+            BatchExpenseRequest.Operation operation = operations.get(i);
+            String id = operation.getId();
+            Expense stored = current.get(id);
+            if (operation.getOp() == BatchExpenseRequest.OperationType.DELETE) {
+                if (stored != null) {
+                    results[i] = batchResult(i, operation, id, BatchExpenseResponse.ItemStatus.CONFLICT,
+                            "Expense " + id + " was modified concurrently; it was not deleted");
+                } else if (!deletesAccounted) {
+                    results[i] = batchResult(i, operation, id, BatchExpenseResponse.ItemStatus.NOT_FOUND,
+                            "Expense " + id + " was deleted concurrently");
+                }
+            } else if (stored == null) {
+                results[i] = batchResult(i, operation, id, BatchExpenseResponse.ItemStatus.NOT_FOUND,
+                        "Expense " + id + " was deleted concurrently");
+            } else if (!Objects.equals(stored.getVersion(), written.get(id).getVersion())
+                    || !now.equals(stored.getUpdatedAt())) {
+                results[i] = batchResult(i, operation, id, BatchExpenseResponse.ItemStatus.CONFLICT,
+                        "Expense " + id + " was modified concurrently; re-read it and retry");
+            }
+        }
+    }
+
+    /**
+     * Check an operation's shape and payload constraints. Returns an error message, or null
+     * when valid. Ids of UPDATE and DELETE operations are added to {@code targetIds}; an id
+     * may be targeted once per batch because unordered writes have no defined order.
+     */
+    private String validateOperation(BatchExpenseRequest.Operation operation, Set<String> targetIds) {
+        if (operation == null || operation.getOp() == null) {
+            return "Operation type is required";
+        }
+        Set<? extends ConstraintViolation<?>> violations;
+        if (operation.getOp() == BatchExpenseRequest.OperationType.CREATE) {
+            if (operation.getExpense() == null) {
+                return "expense is required for CREATE";
+            }
+            violations = validator.validate(operation.getExpense());
+        } else {
+            if (!StringUtils.hasText(operation.getId())) {
+                return "id is required for " + operation.getOp();
+            }
+            if (operation.getOp() == BatchExpenseRequest.OperationType.UPDATE && operation.getChanges() == null) {
+                return "changes are required for UPDATE";
+            }
+            violations = operation.getChanges() != null ? validator.validate(operation.getChanges()) : Set.of();
+            if (violations.isEmpty() && !targetIds.add(operation.getId())) {
+                return "Expense id appears in more than one operation of this batch";
+            }
+        }
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    private static boolean changesText(UpdateExpenseRequest changes) {
+        return changes.getTitle() != null || changes.getDescription() != null || changes.getNotes() != null;
+    }
+
+    private static boolean changesSchedule(UpdateExpenseRequest changes) {
+        return changes.getRecurring() != null || changes.getRecurringFrequency() != null
+                || changes.getExpenseDate() != null;
+    }
+
+    private static BatchExpenseResponse.ItemResult batchResult(int index, BatchExpenseRequest.Operation operation,
+                                                               String id, BatchExpenseResponse.ItemStatus status,
+                                                               String error) {
+        return BatchExpenseResponse.ItemResult.builder()
+                .index(index)
+                .op(operation != null ? operation.getOp() : null)
+                .id(id)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Build a {@code $set} for the non-null fields of a partial update, bumping the version.
+     */
+    static Update toUpdate(UpdateExpenseRequest changes, Category category, LocalDateTime now) {
+        Update update = new Update()
+                .set("updatedAt", now)
+                .inc("version", 1);
+        if (changes.getTitle() != null) update.set("title", changes.getTitle());
+        if (changes.getDescription() != null) update.set("description", changes.getDescription());
+        if (changes.getAmount() != null) update.set("amount", changes.getAmount());
+        if (changes.getExpenseType() != null) update.set("expenseType", changes.getExpenseType());
+        if (changes.getExpenseDate() != null) update.set("expenseDate", changes.getExpenseDate());
+        if (changes.getNotes() != null) update.set("notes", changes.getNotes());
+        if (changes.getRecurring() != null) update.set("recurring", changes.getRecurring());
+        if (changes.getRecurringFrequency() != null) update.set("recurringFrequency", changes.getRecurringFrequency());
+        if (category != null) {
+            update.set("categoryId", category.getId())
+                    .set("categoryName", category.getName())
+                    .set("categoryColor", category.getColor())
+                    .set("categoryIcon", category.getIcon());
+        }
+        return update;
+    }
+
+    /**
+     * Apply the same changes as {@link #toUpdate} to an expense in memory.
+     */
+    static void applyChanges(Expense expense, UpdateExpenseRequest changes, Category category, LocalDateTime now) {
+        expense.setUpdatedAt(now);
+        expense.setVersion(expense.getVersion() != null ? expense.getVersion() + 1 : 1);
+        if (changes.getTitle() != null) expense.setTitle(changes.getTitle());
+        if (changes.getDescription() != null) expense.setDescription(changes.getDescription());
+        if (changes.getAmount() != null) expense.setAmount(changes.getAmount());
+        if (changes.getExpenseType() != null) expense.setExpenseType(changes.getExpenseType());
+        if (changes.getExpenseDate() != null) expense.setExpenseDate(changes.getExpenseDate());
+        if (changes.getNotes() != null) expense.setNotes(changes.getNotes());
+        if (changes.getRecurring() != null) expense.setRecurring(changes.getRecurring());
+        if (changes.getRecurringFrequency() != null) expense.setRecurringFrequency(changes.getRecurringFrequency());
+        if (category != null) {
+            applyCategory(expense, category);
+        }
+    }
+
+    /**
+     * Add the fields derived from an expense to the same update as the changes that affect
+     * them: search terms when its text changes and the template schedule when its recurrence
+     * changes. {@code merged} is the expense as it will be after the update, and is updated too.
+     */
+    static void setDerivedFields(Update update, Expense merged, UpdateExpenseRequest changes, LocalDate today) {
+        if (changesText(changes)) {
+            merged.setSearchTerms(SearchTokenizer.tokenize(merged.getTitle(), merged.getDescription(), merged.getNotes()));
+            update.set("searchTerms", merged.getSearchTerms());
+        }
+        if (changesSchedule(changes)) {
+            // Schedule changes only affect occurrences from today on
+            RecurringSchedule.apply(merged, today);
+            if (merged.getNextDueDate() != null) {
+                update.set("nextDueDate", merged.getNextDueDate()).set("recurringShard", merged.getRecurringShard());
+            } else {
+                update.unset("nextDueDate").unset("recurringShard");
+            }
+        }
+    }
+
+    private void validateFilter(ExpenseFilterRequest filter) {
+        if (filter.getStartDate() != null && filter.getEndDate() != null
+                && filter.getStartDate().isAfter(filter.getEndDate())) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        if (filter.getMinAmount() != null && filter.getMaxAmount() != null
+                && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+            throw new BadRequestException("minAmount must not be greater than maxAmount");
+        }
+    }
+
+    private PagedResponse<ExpenseResponse> toCursorPage(List<Expense> expenses, int pageSize,
+                                                        boolean first, Long totalElements,
+                                                        ExpenseFieldSet fieldSet) {
+        boolean hasNext = expenses.size() > pageSize;
+        List<Expense> page = hasNext ? expenses.subList(0, pageSize) : expenses;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Expense last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getExpenseDate(), new ObjectId(last.getId())).encode();
+        }
+
+        List<ExpenseResponse> content = page.stream()
+                .map(expense -> mapToResponse(expense, fieldSet))
+                .collect(Collectors.toList());
+        return PagedResponse.ofCursor(content, pageSize, first, nextCursor, totalElements);
+    }
+
     private ExpenseResponse mapToResponse(Expense expense) {
+        return mapToResponse(expense, ExpenseFieldSet.ALL);
+    }
+
+    /**
+     * Map only the selected properties; the rest stay null and are omitted from the JSON.
+     */
+    private ExpenseResponse mapToResponse(Expense expense, ExpenseFieldSet fields) {
         CategoryResponse categoryResponse = null;
-        if (expense.getCategoryId() != null) {
+        if (fields.includes("category") && expense.getCategoryId() != null) {
             categoryResponse = CategoryResponse.builder()
                     .id(expense.getCategoryId())
                     .name(expense.getCategoryName())
@@ -123,18 +707,23 @@ public class ExpenseService {
         }
 
         return ExpenseResponse.builder()
-                .id(expense.getId())
-                .title(expense.getTitle())
-                .description(expense.getDescription())
-                .amount(expense.getAmount())
-                .expenseType(expense.getExpenseType())
-                .expenseDate(expense.getExpenseDate())
+                .id(fields.includes("id") ? expense.getId() : null)
+                .title(fields.includes("title") ? expense.getTitle() : null)
+                .description(fields.includes("description") ? expense.getDescription() : null)
+                .amount(fields.includes("amount") ? expense.getAmount() : null)
+                .expenseType(fields.includes("expenseType") ? expense.getExpenseType() : null)
+                .expenseDate(fields.includes("expenseDate") ? expense.getExpenseDate() : null)
                 .category(categoryResponse)
-                .notes(expense.getNotes())
-                .recurring(expense.isRecurring())
-                .recurringFrequency(expense.getRecurringFrequency())
-                .createdAt(expense.getCreatedAt())
-                .updatedAt(expense.getUpdatedAt())
+                .receiptUrl(fields.includes("receiptUrl") ? expense.getReceiptUrl() : null)
+                .receiptFilename(fields.includes("receiptFilename") ? expense.getReceiptFilename() : null)
+                .notes(fields.includes("notes") ? expense.getNotes() : null)
+                .recurring(fields.includes("recurring") ? expense.isRecurring() : null)
+                .recurringFrequency(fields.includes("recurringFrequency") ? expense.getRecurringFrequency() : null)
+                .nextDueDate(fields.includes("nextDueDate") ? expense.getNextDueDate() : null)
+                .recurringTemplateId(fields.includes("recurringTemplateId") ? expense.getRecurringTemplateId() : null)
+                .version(fields.includes("version") ? expense.getVersion() : null)
+                .createdAt(fields.includes("createdAt") ? expense.getCreatedAt() : null)
+                .updatedAt(fields.includes("updatedAt") ? expense.getUpdatedAt() : null)
                 .build();
     }
 }
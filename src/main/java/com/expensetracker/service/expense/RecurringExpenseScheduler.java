@@ -0,0 +1,227 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.RecurringFrequency;
+import com.expensetracker.model.SchedulerLease;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.service.analytics.ExpenseChangeSet;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.util.RecurringSchedule;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the due occurrences of recurring expense templates.
+ *
+ * Templates are split into {@link RecurringSchedule#SHARD_COUNT} shards by userId hash.
+ * Each run visits the shards in random order and only processes the ones it can lease,
+ * so several nodes share the work without processing the same shard twice. Due templates
+ * are read from the partial (recurring, recurringShard, nextDueDate) index in batches,
+ * their occurrences are written with unordered bulk inserts, and each template's
+ * nextDueDate is then advanced. A unique (recurringTemplateId, expenseDate) index makes
+ * generation idempotent per period, so a run interrupted between those steps is safe.
+ */
+@Service
+@Slf4j
+public class RecurringExpenseScheduler {
+
+    private static final String LEASE_PREFIX = "recurring-expenses-";
+
+    private final MongoTemplate mongoTemplate;
+    private final ExpenseRepository expenseRepository;
+    private final DataVersionService dataVersionService;
+    private final ExpenseRollupService expenseRollupService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final int maxOccurrencesPerTemplate;
+    private final Duration lease;
+
+    public RecurringExpenseScheduler(MongoTemplate mongoTemplate,
+                                     ExpenseRepository expenseRepository,
+                                     DataVersionService dataVersionService,
+                                     ExpenseRollupService expenseRollupService,
+                                     @Value("${app.recurring.batch-size:500}") int batchSize,
+                                     @Value("${app.recurring.max-occurrences-per-run:100}") int maxOccurrencesPerTemplate,
+                                     @Value("${app.recurring.lease:5m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.expenseRepository = expenseRepository;
+        this.dataVersionService = dataVersionService;
+        this.expenseRollupService = expenseRollupService;
+        this.batchSize = batchSize;
+        this.maxOccurrencesPerTemplate = maxOccurrencesPerTemplate;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recurring.interval-ms:300000}", initialDelayString = "${app.recurring.initial-delay-ms:30000}")
+    public void generateDueOccurrences() {
+        LocalDate today = LocalDate.now();
+        List<Integer> shards = IntStream.range(0, RecurringSchedule.SHARD_COUNT).boxed().collect(Collectors.toList());
+        Collections.shuffle(shards);
+
+        for (int shard : shards) {
+            try {
+                if (acquireLease(shard)) {
+                    try {
+                        processShard(shard, today);
+                    } finally {
+                        releaseLease(shard);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Recurring expense shard {} failed: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    private void processShard(int shard, LocalDate today) {
+        long generated = 0;
+        List<Expense> templates;
+        do {
+            templates = expenseRepository.findDueTemplates(shard, today, batchSize);
+            if (templates.isEmpty()) {
+                break;
+            }
+
+            List<Expense> occurrences = new ArrayList<>();
+            BulkOperations advance = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class);
+            for (Expense template : templates) {
+                RecurringFrequency frequency = RecurringFrequency.from(template.getRecurringFrequency());
+                Query unchanged = Query.query(Criteria.where("_id").is(template.getId())
+                        .and("nextDueDate").is(template.getNextDueDate()));
+                if (frequency == null) {
+                    advance.updateOne(unchanged, new Update().unset("nextDueDate").unset("recurringShard"));
+                    continue;
+                }
+                LocalDate due = template.getNextDueDate();
+                int count = 0;
+                while (!due.isAfter(today) && count++ < maxOccurrencesPerTemplate) {
+                    occurrences.add(occurrenceOf(template, due));
+                    due = frequency.nextAfter(template.getExpenseDate(), due);
+                }
+                // Only advance if the template was not rescheduled meanwhile
+                advance.updateOne(unchanged, new Update().set("nextDueDate", due));
+            }
+
+            List<Expense> inserted = insertIgnoringDuplicates(occurrences);
+            generated += inserted.size();
+            advance.execute();
+            expenseRollupService.apply(new ExpenseChangeSet().addAll(inserted));
+            dataVersionService.bumpAll(templates.stream().map(Expense::getUserId).toList());
+            renewLease(shard);
+        } while (templates.size() == batchSize);
+
+        if (generated > 0) {
+            log.info("Generated {} recurring expense occurrences in shard {}", generated, shard);
+        }
+    }
+
+    private Expense occurrenceOf(Expense template, LocalDate date) {
+        return Expense.builder()
+                .title(template.getTitle())
+                .description(template.getDescription())
+                .amount(template.getAmount())
+                .expenseType(template.getExpenseType())
+                .expenseDate(date)
+                .notes(template.getNotes())
+                .recurring(false)
+                .recurringFrequency(template.getRecurringFrequency())
+                .recurringTemplateId(template.getId())
+                .userId(template.getUserId())
+                .categoryId(template.getCategoryId())
+                .categoryName(template.getCategoryName())
+                .categoryColor(template.getCategoryColor())
+                .categoryIcon(template.getCategoryIcon())
+                .searchTerms(template.getSearchTerms())
+                // Bulk inserts bypass the repository's version initialization
+                .version(0L)
+                .build();
+    }
+
+    /**
+     * Insert occurrences, treating duplicate-key rejections as already generated.
+     * Returns the occurrences that were actually inserted.
+     */
+    private List<Expense> insertIgnoringDuplicates(List<Expense> occurrences) {
+        if (occurrences.isEmpty()) {
+            return occurrences;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Expense.class)
+                    .insert(occurrences)
+                    .execute();
+            return occurrences;
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            List<Expense> inserted = new ArrayList<>();
+            for (int i = 0; i < occurrences.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    inserted.add(occurrences.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private boolean acquireLease(int shard) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_PREFIX + shard)
+                .orOperator(Criteria.where("leaseExpiresAt").lt(now), Criteria.where("owner").is(instanceId)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("leaseExpiresAt", now.plus(lease));
+        try {
+            mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SchedulerLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another node holds an unexpired lease, so the upsert collided with its document
+            return false;
+        }
+    }
+
+    private void renewLease(int shard) {
+        mongoTemplate.updateFirst(ownedLease(shard),
+                new Update().set("leaseExpiresAt", Instant.now().plus(lease)), SchedulerLease.class);
+    }
+
+    private void releaseLease(int shard) {
+        mongoTemplate.updateFirst(ownedLease(shard), new Update()
+                .set("leaseExpiresAt", Instant.now())
+                .set("lastCompletedAt", Instant.now()), SchedulerLease.class);
+    }
+
+    private Query ownedLease(int shard) {
+        return Query.query(Criteria.where("_id").is(LEASE_PREFIX + shard).and("owner").is(instanceId));
+    }
+}
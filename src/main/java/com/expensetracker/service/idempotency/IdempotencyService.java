@@ -0,0 +1,193 @@
+package com.expensetracker.service.idempotency;
+
+import com.expensetracker.model.IdempotencyRecord;
+import com.expensetracker.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores responses of write requests sent with an Idempotency-Key.
+ *
+ * Completed records are kept in a TTL-indexed collection and fronted by a Caffeine
+ * near-cache, so retries on the same node replay without a database round trip.
+ * In-progress records are never cached: their state must come from Mongo, which is
+ * shared by all nodes. Requests with the same key on one node are serialized by a
+ * per-key lock, so unrelated keys never wait on each other; across nodes the unique
+ * record id decides which request runs.
+ *
+ * Completing or releasing a key only touches the in-progress record the request itself
+ * inserted, so a request that outlived its claim cannot overwrite or delete a later one.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, IdempotencyRecord> completedRecords;
+    // Entries live only while a request holds or waits for the key
+    private final ConcurrentMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final Duration inProgressTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              MongoTemplate mongoTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.retention:24h}") Duration retention,
+                              @Value("${app.idempotency.in-progress-timeout:2m}") Duration inProgressTimeout,
+                              @Value("${app.idempotency.near-cache-ttl:10m}") Duration nearCacheTtl,
+                              @Value("${app.idempotency.near-cache-size:10000}") long nearCacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.retention = retention;
+        this.inProgressTimeout = inProgressTimeout;
+        this.completedRecords = Caffeine.newBuilder()
+                .maximumSize(nearCacheSize)
+                .expireAfterWrite(nearCacheTtl.compareTo(retention) < 0 ? nearCacheTtl : retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completedRecords, "idempotencyKeys");
+    }
+
+    /**
+     * Take the local lock for the key, waiting up to {@code timeout} for a request
+     * already holding it. Every successful call must be paired with {@link #unlock}.
+     *
+     * @return false if the key is still held by another request after the timeout
+     */
+    public boolean tryLock(String key, Duration timeout) throws InterruptedException {
+        KeyLock lock = locks.compute(key, (k, existing) -> {
+            KeyLock keyLock = existing != null ? existing : new KeyLock();
+            keyLock.users++;
+            return keyLock;
+        });
+        boolean acquired = false;
+        try {
+            acquired = lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                detach(key);
+            }
+        }
+    }
+
+    public void unlock(String key) {
+        locks.get(key).unlock();
+        detach(key);
+    }
+
+    private void detach(String key) {
+        locks.computeIfPresent(key, (k, lock) -> --lock.users == 0 ? null : lock);
+    }
+
+    /**
+     * The record for the key, completed or still in progress.
+     */
+    public Optional<IdempotencyRecord> find(String key) {
+        IdempotencyRecord cached = completedRecords.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt() == null || record.getExpiresAt().isAfter(Instant.now()));
+        stored.filter(IdempotencyRecord::isCompleted).ifPresent(record -> completedRecords.put(key, record));
+        return stored;
+    }
+
+    /**
+     * Claim the key for a new request.
+     *
+     * @return the in-progress record, or empty if another request already holds the key
+     */
+    public Optional<IdempotencyRecord> begin(String key, String requestHash) {
+        // Mongo keeps milliseconds, and the claim is later matched on createdAt
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(key)
+                .requestHash(requestHash)
+                .createdAt(now)
+                .expiresAt(now.plus(inProgressTimeout))
+                .build();
+        try {
+            return Optional.of(idempotencyRecordRepository.insert(record));
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the response of the request holding the key; {@code record} is the one
+     * returned by {@link #begin} with the response fields filled in.
+     *
+     * @return false if the claim expired or was released first, in which case nothing is stored
+     */
+    public boolean complete(IdempotencyRecord record) {
+        Instant expiresAt = record.getCreatedAt().plus(retention);
+        Update update = new Update()
+                .set("completed", true)
+                .set("responseStatus", record.getResponseStatus())
+                .set("contentType", record.getContentType())
+                .set("location", record.getLocation())
+                .set("etag", record.getEtag())
+                .set("responseBody", record.getResponseBody())
+                .set("expiresAt", expiresAt);
+        Query unexpiredClaim = claim(record).addCriteria(Criteria.where("expiresAt").gt(Instant.now()));
+        if (mongoTemplate.updateFirst(unexpiredClaim, update, IdempotencyRecord.class).getMatchedCount() == 0) {
+            return false;
+        }
+        record.setCompleted(true);
+        record.setExpiresAt(expiresAt);
+        completedRecords.put(record.getId(), record);
+        return true;
+    }
+
+    /**
+     * Release the key so the request can be retried, e.g. after a server error.
+     */
+    public void release(IdempotencyRecord record) {
+        try {
+            mongoTemplate.remove(claim(record), IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            // the record still expires after the in-progress timeout
+            log.warn("Failed to release idempotency key {}: {}", record.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * The in-progress record inserted by {@link #begin} for this request; createdAt tells
+     * it apart from a later claim on the same key.
+     */
+    private static Query claim(IdempotencyRecord record) {
+        return Query.query(Criteria.where("_id").is(record.getId())
+                .and("completed").is(false)
+                .and("createdAt").is(record.getCreatedAt()));
+    }
+
+    /**
+     * Lock counting the requests holding or waiting for it; only changed inside map
+     * operations on its key, so it is removed exactly when the last one leaves.
+     */
+    private static final class KeyLock extends ReentrantLock {
+        private int users;
+    }
+}
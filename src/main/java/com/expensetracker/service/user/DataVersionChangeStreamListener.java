@@ -0,0 +1,48 @@
+package com.expensetracker.service.user;
+
+import com.expensetracker.model.UserDataVersion;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached data versions when another node bumps them, so reads stop answering
+ * 304 for data that changed elsewhere without waiting for the cache TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.change-streams.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class DataVersionChangeStreamListener {
+
+    private final MessageListenerContainer messageListenerContainer;
+    private final MongoTemplate mongoTemplate;
+    private final DataVersionService dataVersionService;
+
+    @PostConstruct
+    void register() {
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder()
+                .collection(mongoTemplate.getCollectionName(UserDataVersion.class))
+                .publishTo(this::onChange)
+                .build();
+        messageListenerContainer.register(request, Document.class);
+        log.info("Listening for data version changes on collection: {}", request.getRequestOptions().getCollectionName());
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        BsonDocument documentKey = message.getRaw().getDocumentKey();
+        if (documentKey == null) {
+            return;
+        }
+        dataVersionService.evict(documentKey.getString("_id").getValue());
+    }
+}
@@ -0,0 +1,143 @@
+package com.expensetracker.service.user;
+
+import com.expensetracker.model.UserDataVersion;
+import com.expensetracker.util.ETagUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks a per-user data version that increases with every write to the user's expenses
+ * or categories, so polling reads can answer 304 Not Modified without touching Mongo.
+ *
+ * Writes bump the version after they are applied and update this node's cache directly.
+ * Bumps made on other nodes are picked up by the change stream listener when change
+ * streams are enabled, and otherwise after the short cache TTL.
+ */
+@Service
+@Slf4j
+public class DataVersionService {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final Cache<String, Long> versions;
+
+    public DataVersionService(MongoTemplate mongoTemplate,
+                              UserService userService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.data-version.cache-ttl:10s}") Duration cacheTtl,
+                              @Value("${app.data-version.cache-size:100000}") long cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "dataVersions");
+    }
+
+    /**
+     * The user's current data version; 0 for users that never wrote anything.
+     */
+    public long current(String userId) {
+        return versions.get(userId, this::loadVersion);
+    }
+
+    /**
+     * ETag of the current user's data, served from memory in the common case.
+     */
+    public String currentETag() {
+        String userId = userService.getCurrentUserId();
+        return ETagUtils.toDataETag(userId, current(userId));
+    }
+
+    /**
+     * ETag of the current user's data for a response that also varies with {@code qualifier}.
+     */
+    public String currentETag(String qualifier) {
+        String userId = userService.getCurrentUserId();
+        return ETagUtils.toDataETag(userId, current(userId), qualifier);
+    }
+
+    /**
+     * Record a write to the user's data. Must be called after the write is applied, so a
+     * read that sees the new version also sees the new data. A failed bump is rethrown:
+     * clients holding the old tag would otherwise keep getting 304 for changed data, so the
+     * request must fail and be retried rather than report success.
+     */
+    public void bump(String userId) {
+        try {
+            UserDataVersion updated = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(userId)),
+                    new Update().inc("version", 1L).set("updatedAt", Instant.now()),
+                    FindAndModifyOptions.options().returnNew(true).upsert(true),
+                    UserDataVersion.class);
+            if (updated != null) {
+                // a concurrent load may have read an older value; never move backwards
+                versions.asMap().merge(userId, updated.getVersion(), Math::max);
+            }
+        } catch (RuntimeException e) {
+            versions.invalidate(userId);
+            log.warn("Failed to bump data version for user {}: {}", userId, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Record writes to the data of several users at once, e.g. from a background job.
+     * Failures are rethrown as in {@link #bump}.
+     */
+    public void bumpAll(Collection<String> userIds) {
+        Set<String> distinct = new HashSet<>(userIds);
+        if (distinct.isEmpty()) {
+            return;
+        }
+        if (distinct.size() == 1) {
+            bump(distinct.iterator().next());
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserDataVersion.class);
+            Instant now = Instant.now();
+            for (String userId : distinct) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(userId)),
+                        new Update().inc("version", 1L).set("updatedAt", now));
+            }
+            bulk.execute();
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump data versions for {} users: {}", distinct.size(), e.getMessage());
+            throw e;
+        } finally {
+            versions.invalidateAll(distinct);
+        }
+    }
+
+    /**
+     * Drop the cached version so the next read reloads it.
+     */
+    public void evict(String userId) {
+        versions.invalidate(userId);
+    }
+
+    private Long loadVersion(String userId) {
+        UserDataVersion version = mongoTemplate.findById(userId, UserDataVersion.class);
+        return version != null ? version.getVersion() : 0L;
+    }
+}
@@ -0,0 +1,128 @@
+package com.expensetracker.service.user;
+
+import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-memory cache of user documents, addressable by id, username and email.
+ *
+ * Users are stored once by id; the username and email caches only map to ids and are
+ * verified against the cached document on every lookup, so a stale index entry can
+ * never return the wrong user. Local writes invalidate explicitly and writes on other
+ * nodes are evicted by {@link UserChangeStreamListener}; the TTL bounds staleness if
+ * the change stream is unavailable.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> usersById;
+    private final Cache<String, String> idsByUsername;
+    private final Cache<String, String> idsByEmail;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.user-cache.ttl:5m}") Duration ttl,
+                     @Value("${app.user-cache.maximum-size:50000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.usersById = newCache(ttl, maximumSize);
+        this.idsByUsername = newCache(ttl, maximumSize);
+        this.idsByEmail = newCache(ttl, maximumSize);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users", "key", "id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByUsername, "users", "key", "username");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users", "key", "email");
+    }
+
+    /**
+     * Find a user by id.
+     */
+    public Optional<User> findById(String id) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findById(id).map(this::put);
+    }
+
+    /**
+     * Find a user by username.
+     */
+    public Optional<User> findByUsername(String username) {
+        User cached = lookup(idsByUsername, username);
+        if (cached != null && username.equals(cached.getUsername())) {
+            return Optional.of(cached);
+        }
+        return userRepository.findByUsername(username).map(this::put);
+    }
+
+    /**
+     * Find a user by username or email, as used for login.
+     */
+    public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        User cached = lookup(idsByUsername, usernameOrEmail);
+        if (cached == null) {
+            cached = lookup(idsByEmail, usernameOrEmail);
+        }
+        if (cached != null && (usernameOrEmail.equals(cached.getUsername()) || usernameOrEmail.equals(cached.getEmail()))) {
+            return Optional.of(cached);
+        }
+        return userRepository.findByUsernameOrEmail(usernameOrEmail).map(this::put);
+    }
+
+    /**
+     * Invalidate all entries for a user that was changed locally.
+     */
+    public void invalidate(User user) {
+        evict(user.getId());
+        if (user.getUsername() != null) {
+            idsByUsername.invalidate(user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            idsByEmail.invalidate(user.getEmail());
+        }
+    }
+
+    /**
+     * Evict a user by id. Index entries pointing at the id become misses on their next lookup.
+     */
+    public void evict(String id) {
+        User removed = usersById.asMap().remove(id);
+        if (removed != null) {
+            idsByUsername.invalidate(removed.getUsername());
+            idsByEmail.invalidate(removed.getEmail());
+            log.debug("Evicted cached user: {}", removed.getUsername());
+        }
+    }
+
+    private User lookup(Cache<String, String> index, String key) {
+        String id = index.getIfPresent(key);
+        return id != null ? usersById.getIfPresent(id) : null;
+    }
+
+    private User put(User user) {
+        usersById.put(user.getId(), user);
+        idsByUsername.put(user.getUsername(), user.getId());
+        idsByEmail.put(user.getEmail(), user.getId());
+        return user;
+    }
+
+    private static <V> Cache<String, V> newCache(Duration ttl, long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.service.user;
+
+import com.expensetracker.model.User;
+import com.expensetracker.service.auth.TokenVersionService;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached user state when a user document changes on any node.
+ * Only the document key is read, so no full documents are shipped over the stream.
+ */
+@Component
+@ConditionalOnProperty(name = "app.change-streams.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class UserChangeStreamListener {
+
+    private final MessageListenerContainer messageListenerContainer;
+    private final MongoTemplate mongoTemplate;
+    private final UserCache userCache;
+    private final TokenVersionService tokenVersionService;
+
+    @PostConstruct
+    void register() {
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder()
+                .collection(mongoTemplate.getCollectionName(User.class))
+                .publishTo(this::onChange)
+                .build();
+        messageListenerContainer.register(request, Document.class);
+        log.info("Listening for user changes on collection: {}", request.getRequestOptions().getCollectionName());
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        BsonDocument documentKey = message.getRaw().getDocumentKey();
+        if (documentKey == null) {
+            return;
+        }
+        BsonValue id = documentKey.get("_id");
+        String userId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        userCache.evict(userId);
+        tokenVersionService.evict(userId);
+    }
+}
@@ -8,13 +8,22 @@ import com.expensetracker.exception.DuplicateResourceException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import com.expensetracker.service.auth.TokenVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,20 +37,47 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final UserCache userCache;
+    private final MongoTemplate mongoTemplate;
+    // DataVersionService depends on this service, so it is resolved lazily
+    private final ObjectProvider<DataVersionService> dataVersionService;
 
     /**
      * Get current authenticated user.
      */
     public User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return userCache.findById(principal.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.getId()));
+        }
+        String username = authentication.getName();
+        return userCache.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
     }
 
+    /**
+     * Load a private copy of the current user for modification.
+     * Cached instances are shared and must never be mutated.
+     */
+    private User loadCurrentUserForUpdate() {
+        String userId = getCurrentUserId();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        userCache.invalidate(user);
+        return user;
+    }
+
     /**
      * Get current user's ID.
+     * Read from the token-derived principal, so no database lookup is needed.
      */
     public String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
         return getCurrentUser().getId();
     }
 
@@ -76,10 +112,13 @@ public class UserService {
 
     /**
      * Update user profile.
+     * Only the changed fields are written, so a concurrent token version bump or password
+     * change is never overwritten with the values read here.
      */
     @Transactional
     public UserResponse updateProfile(UpdateUserRequest request) {
-        User user = getCurrentUser();
+        User user = loadCurrentUserForUpdate();
+        Update update = new Update();
 
         // Check email uniqueness if changed
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -87,21 +126,36 @@ public class UserService {
                 throw new DuplicateResourceException("User", "email", request.getEmail());
             }
             user.setEmail(request.getEmail());
+            update.set("email", user.getEmail());
         }
 
         if (request.getFirstName() != null) {
             user.setFirstName(request.getFirstName());
+            update.set("firstName", user.getFirstName());
         }
 
         if (request.getLastName() != null) {
             user.setLastName(request.getLastName());
+            update.set("lastName", user.getLastName());
         }
 
+        boolean budgetChanged = request.getMonthlyBudget() != null
+                && (user.getMonthlyBudget() == null || user.getMonthlyBudget().compareTo(request.getMonthlyBudget()) != 0);
         if (request.getMonthlyBudget() != null) {
             user.setMonthlyBudget(request.getMonthlyBudget());
+            update.set("monthlyBudget", user.getMonthlyBudget());
         }
 
-        user = userRepository.save(user);
+        if (!update.getUpdateObject().isEmpty()) {
+            user.setUpdatedAt(LocalDateTime.now());
+            update.set("updatedAt", user.getUpdatedAt());
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.getId())), update, User.class);
+            userCache.invalidate(user);
+        }
+        if (budgetChanged) {
+            // The monthly summary reports budget usage, so cached copies must not revalidate
+            dataVersionService.getObject().bump(user.getId());
+        }
         log.info("User profile updated: {}", user.getUsername());
 
         return mapToUserResponse(user);
@@ -117,7 +171,7 @@ public class UserService {
             throw new BadRequestException("New password and confirm password do not match");
         }
 
-        User user = getCurrentUser();
+        User user = loadCurrentUserForUpdate();
 
         // Verify current password
         if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
@@ -131,7 +185,10 @@ public class UserService {
 
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.getId())),
+                new Update().set("password", user.getPassword()).set("updatedAt", LocalDateTime.now()), User.class);
+        tokenVersionService.bump(user.getId());
+        userCache.invalidate(user);
         
         log.info("Password changed for user: {}", user.getUsername());
     }
@@ -143,6 +200,8 @@ public class UserService {
     public void deleteAccount() {
         User user = getCurrentUser();
         userRepository.delete(user);
+        tokenVersionService.evict(user.getId());
+        userCache.invalidate(user);
         log.info("User account deleted: {}", user.getUsername());
     }
 
@@ -0,0 +1,52 @@
+package com.expensetracker.util;
+
+/**
+ * Content negotiation on the Accept-Encoding request header.
+ */
+public final class AcceptEncodingUtils {
+
+    private AcceptEncodingUtils() {
+    }
+
+    /**
+     * Check whether the client accepts a gzip response. An explicit gzip entry decides,
+     * otherwise a "*" entry does; either is refused with {@code q=0}.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzipQuality = quality(parts);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality(parts);
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    /**
+     * The q parameter of an entry; 1 when absent, 0 when malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.expensetracker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 CSV reader.
+ *
+ * Reads one record at a time from the underlying reader, so memory use is bounded by
+ * the longest record rather than the size of the input. Quoted fields may contain
+ * delimiters, escaped quotes and line breaks.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber = 1;
+    private long recordLine = 1;
+    private int pushedBack = -2;
+    private boolean eof;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record, or return null at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        while (!eof) {
+            recordLine = lineNumber;
+            List<String> record = readRecord();
+            if (record != null && !(record.size() == 1 && record.get(0).isEmpty())) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Line on which the record most recently returned by {@link #next()} started.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                eof = true;
+                if (!fieldStarted && record.isEmpty()) {
+                    return null;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    quoted = true;
+                    fieldStarted = true;
+                }
+                case ',' -> {
+                    record.add(field.toString());
+                    field.setLength(0);
+                    fieldStarted = true;
+                }
+                case '\r' -> {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                    lineNumber++;
+                    record.add(field.toString());
+                    return record;
+                }
+                case '\n' -> {
+                    lineNumber++;
+                    record.add(field.toString());
+                    return record;
+                }
+                default -> {
+                    field.append((char) c);
+                    fieldStarted = true;
+                }
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.expensetracker.util;
+
+/**
+ * Minimal RFC 4180 CSV helpers.
+ */
+public final class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    /**
+     * Quote a value if it contains a delimiter, quote or line break; null becomes empty.
+     * Text starting like a formula is prefixed with {@code '} so spreadsheets that open
+     * the file show it as text instead of evaluating it.
+     */
+    public static String escape(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (isFormulaStart(value.charAt(0))) {
+            value = "'" + value;
+        }
+        boolean needsQuoting = false;
+        for (int i = 0; i < value.length() && !needsQuoting; i++) {
+            char c = value.charAt(i);
+            needsQuoting = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuoting) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isFormulaStart(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,119 @@
+package com.expensetracker.util;
+
+import com.expensetracker.exception.BadRequestException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Conversions between document versions and HTTP entity tags, and the responses carrying them.
+ */
+public final class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    /**
+     * Strong entity tag for a document version; a missing version counts as 0.
+     */
+    public static String toETag(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * Weak entity tag for a user's data version. The version is a per-user counter, so the
+     * tag also carries a digest of the user id: two users sharing a browser or a private
+     * cache must never validate each other's cached responses.
+     */
+    public static String toDataETag(String userId, long dataVersion) {
+        return "W/\"" + userDigest(userId) + "-d" + dataVersion + "\"";
+    }
+
+    /**
+     * Weak entity tag for a response that also depends on something other than the
+     * user's data, such as the current date.
+     */
+    public static String toDataETag(String userId, long dataVersion, String qualifier) {
+        return "W/\"" + userDigest(userId) + "-d" + dataVersion + "-" + qualifier + "\"";
+    }
+
+    private static String userDigest(String userId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Check whether an If-None-Match header lists the tag, or is "*".
+     * Tags are compared weakly, as If-None-Match requires.
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String expected = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 200 response carrying the tag. Responses are per user, so they may only be kept by
+     * private caches, keyed by the credentials as well as the URL, and must be revalidated.
+     */
+    public static ResponseEntity.BodyBuilder ok(String eTag) {
+        return validated(ResponseEntity.ok(), eTag);
+    }
+
+    /**
+     * 304 response for a matching If-None-Match, with the same caching headers as {@link #ok}.
+     */
+    public static <T> ResponseEntity<T> notModified(String eTag) {
+        return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag).build();
+    }
+
+    private static ResponseEntity.BodyBuilder validated(ResponseEntity.BodyBuilder response, String eTag) {
+        return response.eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Parse an If-Match header into the expected version.
+     * Returns null when the header is absent or "*", meaning any version is acceptable.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+}
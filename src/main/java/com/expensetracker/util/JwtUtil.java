@@ -1,27 +1,57 @@
 package com.expensetracker.util;
 
+import com.expensetracker.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * Utility class for JWT token operations.
  * Handles token generation, validation, and extraction.
+ *
+ * Signature verification is done once per distinct token: verified claims are kept
+ * in a bounded cache keyed by a SHA-256 digest of the token and evicted at the
+ * token's own expiration time.
  */
 @Component
 @Slf4j
 public class JwtUtil {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String CLAIM_FAMILY_ID = "fam";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -31,6 +61,30 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    private Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Build the signing key, parser and verified-token cache once at startup.
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
+    }
+
     /**
      * Extract username from JWT token.
      */
@@ -54,21 +108,42 @@ public class JwtUtil {
     }
 
     /**
-     * Extract all claims from JWT token.
+     * Extract all claims from JWT token, verifying the signature at most once per token.
+     * Expired tokens are rejected by the parser and are never served from the cache.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String key = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
     }
 
     /**
-     * Check if JWT token is expired.
+     * Verify the token and return its claims, or null if it is invalid or expired.
+     * This is the single parse used on the request path.
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Claims resolveClaims(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (ExpiredJwtException e) {
+            log.warn("JWT token is expired: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            log.warn("Invalid JWT token: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.warn("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.warn("JWT token verification failed: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.warn("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
     }
 
     /**
@@ -78,30 +153,61 @@ public class JwtUtil {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Generate access token carrying the identity claims needed to authenticate
+     * requests without a user lookup.
+     */
+    public String generateToken(User user) {
+        return generateToken(identityClaims(user), user);
+    }
+
     /**
      * Generate access token with extra claims.
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, jwtExpiration, UUID.randomUUID().toString());
     }
 
     /**
      * Generate refresh token for user.
      */
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(new HashMap<>(), userDetails, refreshExpiration, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Generate a refresh token with the given id in a rotation family.
+     * Refresh tokens are typed so they can never be used as access tokens.
+     */
+    public String generateRefreshToken(User user, String tokenId, String familyId) {
+        Map<String, Object> claims = identityClaims(user);
+        claims.put(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH);
+        claims.put(CLAIM_FAMILY_ID, familyId);
+        return buildToken(claims, user, refreshExpiration, tokenId);
+    }
+
+    /**
+     * Claims identifying the user and the account-state version the token was issued for.
+     */
+    private Map<String, Object> identityClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return claims;
     }
 
     /**
      * Build JWT token with claims and expiration.
      */
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration, String tokenId) {
         return Jwts.builder()
                 .claims(extraClaims)
+                .id(tokenId)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -109,35 +215,15 @@ public class JwtUtil {
      * Validate JWT token against user details.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (JwtException | IllegalArgumentException e) {
-            log.warn("Invalid JWT token: {}", e.getMessage());
-            return false;
-        }
+        Claims claims = resolveClaims(token);
+        return claims != null && userDetails.getUsername().equals(claims.getSubject());
     }
 
     /**
      * Validate JWT token (check signature and expiration).
      */
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return !isTokenExpired(token);
-        } catch (MalformedJwtException e) {
-            log.warn("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.warn("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.warn("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.warn("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
+        return resolveClaims(token) != null;
     }
 
     /**
@@ -155,10 +241,33 @@ public class JwtUtil {
     }
 
     /**
-     * Get signing key for JWT operations.
+     * Digest the raw token so the cache never holds usable bearer credentials.
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Expires each cached entry at the token's own "exp" claim.
+     */
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
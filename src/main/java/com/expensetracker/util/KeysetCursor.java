@@ -0,0 +1,41 @@
+package com.expensetracker.util;
+
+import com.expensetracker.exception.BadRequestException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor over (expenseDate, _id), both descending.
+ * Clients receive it as a URL-safe Base64 string and pass it back unchanged.
+ */
+public record KeysetCursor(LocalDate expenseDate, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = expenseDate.toString() + SEPARATOR + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a client-supplied cursor; returns null for a missing cursor (first page).
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    new ObjectId(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.expensetracker.util;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.RecurringFrequency;
+
+import java.time.LocalDate;
+
+/**
+ * Derives the scheduling fields of recurring expense templates.
+ */
+public final class RecurringSchedule {
+
+    /**
+     * Fixed number of scheduler shards. Templates are assigned by userId hash, so
+     * changing this requires recomputing {@code recurringShard} on stored templates.
+     */
+    public static final int SHARD_COUNT = 64;
+
+    private RecurringSchedule() {
+    }
+
+    public static int shardOf(String userId) {
+        return Math.floorMod(userId.hashCode(), SHARD_COUNT);
+    }
+
+    /**
+     * Whether the expense is a template the scheduler should generate occurrences from.
+     */
+    public static boolean isTemplate(Expense expense) {
+        return expense.isRecurring()
+                && expense.getRecurringTemplateId() == null
+                && expense.getExpenseDate() != null
+                && RecurringFrequency.from(expense.getRecurringFrequency()) != null;
+    }
+
+    /**
+     * First occurrence after the template's own date that falls on or after {@code notBefore},
+     * or null when the expense is not a template.
+     */
+    public static LocalDate nextDueDate(Expense expense, LocalDate notBefore) {
+        if (!isTemplate(expense)) {
+            return null;
+        }
+        RecurringFrequency frequency = RecurringFrequency.from(expense.getRecurringFrequency());
+        LocalDate anchor = expense.getExpenseDate();
+        LocalDate after = notBefore.isAfter(anchor) ? notBefore.minusDays(1) : anchor;
+        return frequency.nextAfter(anchor, after);
+    }
+
+    /**
+     * Set or clear the template fields on an expense about to be saved.
+     */
+    public static void apply(Expense expense, LocalDate notBefore) {
+        LocalDate nextDueDate = nextDueDate(expense, notBefore);
+        expense.setNextDueDate(nextDueDate);
+        expense.setRecurringShard(nextDueDate != null ? shardOf(expense.getUserId()) : null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.expensetracker.util;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits free text into lowercase word tokens for search.
+ * The same rules are used for stored search terms and for queries, so they always agree.
+ */
+public final class SearchTokenizer {
+
+    public static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int MAX_TOKENS = 100;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Distinct tokens of all given texts in order of first appearance; nulls are skipped.
+     */
+    public static List<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+            while (matcher.find() && tokens.size() < MAX_TOKENS) {
+                String token = matcher.group();
+                if (token.length() >= MIN_TOKEN_LENGTH) {
+                    tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+                }
+            }
+        }
+        return List.copyOf(tokens);
+    }
+}
@@ -0,0 +1,39 @@
+package com.expensetracker.util;
+
+import com.expensetracker.exception.BadRequestException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor over (text score, _id), both descending.
+ * The score is carried as its exact bit pattern so page boundaries never drift.
+ */
+public record TextSearchCursor(double score, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(score)) + SEPARATOR + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a client-supplied cursor; returns null for a missing cursor (first page).
+     */
+    public static TextSearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            return new TextSearchCursor(
+                    Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16)),
+                    new ObjectId(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.IdempotencyRecord;
+import com.expensetracker.model.Role;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import com.expensetracker.service.idempotency.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The body the filter buffers must reach the rest of the chain, also through a read
+ * listener, and a claim that expired while the request ran must be left alone.
+ */
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"title\":\"Coffee\"}";
+
+    private final IdempotencyService idempotencyService = mock(IdempotencyService.class);
+    private final IdempotencyFilter filter = new IdempotencyFilter(idempotencyService,
+            new ObjectMapper().findAndRegisterModules(), DataSize.ofKilobytes(1), Duration.ZERO);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        AuthenticatedUser principal = new AuthenticatedUser("user-1", "ada", Role.USER, 0L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        when(idempotencyService.tryLock(anyString(), any())).thenReturn(true);
+        when(idempotencyService.find(anyString())).thenReturn(Optional.empty());
+        when(idempotencyService.begin(anyString(), anyString())).thenAnswer(invocation -> Optional.of(
+                IdempotencyRecord.builder()
+                        .id(invocation.getArgument(0))
+                        .requestHash(invocation.getArgument(1))
+                        .createdAt(Instant.now())
+                        .build()));
+        when(idempotencyService.complete(any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readListenerIsGivenTheWholeBody() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, (request, chainResponse) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) chainResponse).setStatus(201);
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(response.getStatus()).isEqualTo(201);
+        verify(idempotencyService).complete(any());
+    }
+
+    @Test
+    void listenerErrorIsReportedToTheListener() throws Exception {
+        List<String> events = new ArrayList<>();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), (request, response) ->
+                request.getInputStream().setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        throw new IOException("client went away");
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        events.add("done");
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        events.add("error: " + t.getMessage());
+                    }
+                }));
+
+        assertThat(events).containsExactly("error: client went away");
+    }
+
+    @Test
+    void expiredClaimIsNotReleased() throws Exception {
+        when(idempotencyService.complete(any())).thenReturn(false);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), (request, response) ->
+                ((HttpServletResponse) response).setStatus(201));
+
+        verify(idempotencyService, never()).release(any());
+    }
+
+    @Test
+    void oversizedBodyIsRejectedWithAnErrorBody() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setContent(new byte[2048]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (chainRequest, chainResponse) -> {
+            throw new AssertionError("an oversized request must not reach the chain");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(response.getContentAsString()).contains("\"status\":413", "\"path\":\"/api/expenses\"");
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/expenses");
+        request.setServletPath("/api/expenses");
+        request.addHeader(IdempotencyFilter.HEADER_IDEMPOTENCY_KEY, "key-1");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
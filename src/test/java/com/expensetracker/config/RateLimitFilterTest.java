@@ -0,0 +1,90 @@
+package com.expensetracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests are charged by endpoint cost against a per-client bucket, and every response
+ * reports the bucket's state.
+ */
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(new ObjectMapper().findAndRegisterModules(), 20, 100);
+
+    @Test
+    void chargesExpensiveEndpointsMore() {
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/expenses/export"))).isEqualTo(10);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/expenses/import"))).isEqualTo(10);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/analytics/summary"))).isEqualTo(5);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/auth/login"))).isEqualTo(3);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/expenses/search"))).isEqualTo(2);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/expenses/batch"))).isEqualTo(2);
+        assertThat(RateLimitFilter.costOf(request("10.0.0.1", "/api/expenses"))).isEqualTo(1);
+    }
+
+    @Test
+    void everyResponseCarriesTheBucketState() throws Exception {
+        MockHttpServletResponse cheap = filter("10.0.0.1", "/api/expenses");
+        MockHttpServletResponse analytics = filter("10.0.0.1", "/api/analytics/summary");
+
+        assertThat(cheap.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(cheap.getHeader("RateLimit-Limit")).isEqualTo("20");
+        assertThat(cheap.getHeader("RateLimit-Remaining")).isEqualTo("19");
+        assertThat(analytics.getHeader("RateLimit-Remaining")).isEqualTo("14");
+        assertThat(Long.parseLong(analytics.getHeader("RateLimit-Reset"))).isBetween(1L, 60L);
+    }
+
+    @Test
+    void rejectsOnceTheBucketIsEmpty() throws Exception {
+        assertThat(filter("10.0.0.1", "/api/expenses/export").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(filter("10.0.0.1", "/api/expenses/export").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", "/api/expenses"), rejected, chain);
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isPositive();
+        assertThat(rejected.getContentAsString()).contains("\"status\":429");
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() throws Exception {
+        filter("10.0.0.1", "/api/expenses/export");
+        filter("10.0.0.1", "/api/expenses/export");
+
+        MockHttpServletResponse other = filter("10.0.0.2", "/api/expenses");
+
+        assertThat(other.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(other.getHeader("RateLimit-Remaining")).isEqualTo("19");
+    }
+
+    @Test
+    void actuatorIsNotLimited() throws Exception {
+        MockHttpServletResponse response = filter("10.0.0.1", "/actuator/health");
+
+        assertThat(response.getHeader("RateLimit-Limit")).isNull();
+    }
+
+    private MockHttpServletResponse filter(String remoteAddr, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(remoteAddr, path), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
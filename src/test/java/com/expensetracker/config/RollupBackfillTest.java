@@ -0,0 +1,113 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.DailyRollup;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.MonthlyRollup;
+import com.expensetracker.model.SchedulerLease;
+import com.expensetracker.model.User;
+import com.expensetracker.service.analytics.ExpenseRollupService;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The startup rollup backfill runs in the background on one node at a time, and only
+ * once unless a rebuild is asked for.
+ */
+class RollupBackfillTest extends EmbeddedMongoIntegrationTest {
+
+    private static final long BACKFILL_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private DataMigrationRunner dataMigrationRunner;
+
+    @SpyBean
+    private ExpenseRollupService expenseRollupService;
+
+    @BeforeEach
+    void withoutRollups() {
+        mongoTemplate.remove(new Query(), MonthlyRollup.class);
+        mongoTemplate.remove(new Query(), DailyRollup.class);
+        mongoTemplate.remove(lease(), SchedulerLease.class);
+        clearInvocations(expenseRollupService);
+        insertExpense(signInNewUser());
+    }
+
+    @Test
+    void backfillsOnceAndRecordsCompletion() throws InterruptedException {
+        dataMigrationRunner.run(new DefaultApplicationArguments());
+
+        verify(expenseRollupService, timeout(BACKFILL_TIMEOUT_MS)).rebuildAll();
+        awaitTrue("the backfill is recorded as completed", () -> completedAt() != null);
+        assertThat(mongoTemplate.exists(new Query(), MonthlyRollup.class)).isTrue();
+
+        mongoTemplate.remove(new Query(), MonthlyRollup.class);
+        clearInvocations(expenseRollupService);
+        dataMigrationRunner.run(new DefaultApplicationArguments());
+
+        verify(expenseRollupService, never()).rebuildAll();
+    }
+
+    @Test
+    void rebuildOptionRunsAgainAfterCompletion() throws InterruptedException {
+        mongoTemplate.insert(SchedulerLease.builder()
+                .id(DataMigrationRunner.ROLLUP_BACKFILL_LEASE)
+                .owner("another-node")
+                .leaseExpiresAt(Instant.now().minusSeconds(60))
+                .lastCompletedAt(Instant.now().minusSeconds(60))
+                .build());
+
+        dataMigrationRunner.run(new DefaultApplicationArguments("--" + DataMigrationRunner.REBUILD_ROLLUPS_OPTION));
+
+        verify(expenseRollupService, timeout(BACKFILL_TIMEOUT_MS)).rebuildAll();
+    }
+
+    @Test
+    void skipsWhileAnotherNodeHoldsTheLease() {
+        mongoTemplate.insert(SchedulerLease.builder()
+                .id(DataMigrationRunner.ROLLUP_BACKFILL_LEASE)
+                .owner("another-node")
+                .leaseExpiresAt(Instant.now().plusSeconds(600))
+                .build());
+
+        dataMigrationRunner.run(new DefaultApplicationArguments());
+
+        verify(expenseRollupService, never()).rebuildAll();
+    }
+
+    private Instant completedAt() {
+        SchedulerLease lease = mongoTemplate.findOne(lease(), SchedulerLease.class);
+        return lease != null ? lease.getLastCompletedAt() : null;
+    }
+
+    private void insertExpense(User user) {
+        mongoTemplate.insert(Expense.builder()
+                .userId(user.getId())
+                .title("Coffee")
+                .amount(new BigDecimal("4.50"))
+                .expenseType(ExpenseType.EXPENSE)
+                .expenseDate(LocalDate.now())
+                .version(0L)
+                .build());
+    }
+
+    private static Query lease() {
+        return Query.query(Criteria.where("_id").is(DataMigrationRunner.ROLLUP_BACKFILL_LEASE));
+    }
+}
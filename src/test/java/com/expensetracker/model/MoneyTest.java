@@ -0,0 +1,76 @@
+package com.expensetracker.model;
+
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The allocation-free Decimal128 decoding and integer percentage math must agree exactly
+ * with the BigDecimal arithmetic they replace.
+ */
+class MoneyTest {
+
+    @Test
+    void decodesDecimal128LikeBigDecimal() {
+        for (String amount : new String[]{"0", "-0", "12.50", "12.5", "-7.25", "1E+3", "0.005", "0.015", "0.025",
+                "12.345", "12.355", "-12.345", "99999999999999.99", "1234567890.123456789", "1E-40"}) {
+            BigDecimal value = new BigDecimal(amount);
+
+            assertThat(Money.toMinorUnits(new Decimal128(value)))
+                    .as(amount)
+                    .isEqualTo(value.setScale(Money.SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+        }
+    }
+
+    @Test
+    void decodesRandomAmountsLikeBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong() % 1_000_000_000_000L, random.nextInt(6));
+
+            assertThat(Money.toMinorUnits(new Decimal128(value))).as(value.toPlainString())
+                    .isEqualTo(Money.toMinorUnits(value));
+        }
+    }
+
+    @Test
+    void sumsExactly() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 1_000; i++) {
+            total = total.plus(Money.of(new BigDecimal("0.10")));
+        }
+
+        assertThat(total.toBigDecimal()).isEqualByComparingTo("100.00");
+        assertThat(total.toDecimal128()).isEqualTo(new Decimal128(new BigDecimal("100.00")));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinorUnits(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.toMinorUnits(new Decimal128(new BigDecimal("1E+30"))))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.toMinorUnits(Decimal128.NaN)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void percentageRoundsHalfUpLikeBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long part = random.nextInt(2_000_000) - 1_000_000;
+            long whole = random.nextInt(1_000_000) + 1;
+            double expected = BigDecimal.valueOf(part).multiply(BigDecimal.valueOf(100))
+                    .divide(BigDecimal.valueOf(whole), 2, RoundingMode.HALF_UP).doubleValue();
+
+            assertThat(Money.percentage(part, whole)).as(part + "/" + whole).isEqualTo(expected);
+        }
+        assertThat(Money.percentage(5, 0)).isZero();
+    }
+}
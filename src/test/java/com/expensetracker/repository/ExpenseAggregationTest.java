@@ -0,0 +1,120 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseRepositoryCustom.CategoryStats;
+import com.expensetracker.repository.ExpenseRepositoryCustom.TypeCategoryTotal;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The grouped aggregations must agree exactly with totals computed in memory over the
+ * same expenses, and their hints must name indexes that exist.
+ */
+class ExpenseAggregationTest extends EmbeddedMongoIntegrationTest {
+
+    private static final String[] CATEGORIES = {"food", "rent", "travel", null};
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    void hintedIndexesExist() {
+        List<String> indexes = mongoTemplate.indexOps(Expense.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .toList();
+
+        assertThat(indexes).contains(ExpenseRepositoryImpl.INDEX_USER_DATE_ID,
+                ExpenseRepositoryImpl.INDEX_USER_TYPE_DATE);
+    }
+
+    @Test
+    void sumByTypeAndCategoryMatchesInMemoryTotals() {
+        User user = signInNewUser();
+        User other = signInNewUser();
+        List<Expense> expenses = insertRandomExpenses(user, 500, new Random(21));
+        insertRandomExpenses(other, 50, new Random(12));
+
+        Map<String, long[]> expected = new HashMap<>();
+        for (Expense expense : expenses) {
+            long[] totals = expected.computeIfAbsent(expense.getExpenseType() + "/" + expense.getCategoryId(),
+                    key -> new long[2]);
+            totals[0] += Money.toMinorUnits(expense.getAmount());
+            totals[1]++;
+        }
+
+        List<TypeCategoryTotal> groups = expenseRepository.sumByTypeAndCategory(user.getId());
+
+        assertThat(groups).hasSize(expected.size());
+        for (TypeCategoryTotal group : groups) {
+            long[] totals = expected.get(group.expenseType() + "/" + group.categoryId());
+            assertThat(group.total().minorUnits()).isEqualTo(totals[0]);
+            assertThat(group.count()).isEqualTo(totals[1]);
+        }
+    }
+
+    @Test
+    void spendingByCategoryMatchesInMemoryStatsWithinTheRange() {
+        User user = signInNewUser();
+        List<Expense> expenses = insertRandomExpenses(user, 500, new Random(25));
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 6, 30);
+
+        Map<String, long[]> expected = new HashMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getExpenseType() != ExpenseType.EXPENSE
+                    || expense.getExpenseDate().isBefore(from) || expense.getExpenseDate().isAfter(to)) {
+                continue;
+            }
+            long amount = Money.toMinorUnits(expense.getAmount());
+            long[] stats = expected.computeIfAbsent(String.valueOf(expense.getCategoryId()),
+                    key -> new long[]{0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            stats[0] += amount;
+            stats[1]++;
+            stats[2] = Math.min(stats[2], amount);
+            stats[3] = Math.max(stats[3], amount);
+        }
+
+        List<CategoryStats> groups = expenseRepository.spendingByCategory(user.getId(), from, to);
+
+        assertThat(groups).hasSize(expected.size());
+        for (CategoryStats group : groups) {
+            long[] stats = expected.get(String.valueOf(group.categoryId()));
+            assertThat(group.total().minorUnits()).isEqualTo(stats[0]);
+            assertThat(group.count()).isEqualTo(stats[1]);
+            assertThat(group.smallest().minorUnits()).isEqualTo(stats[2]);
+            assertThat(group.largest().minorUnits()).isEqualTo(stats[3]);
+        }
+    }
+
+    private List<Expense> insertRandomExpenses(User user, int count, Random random) {
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expenses.add(Expense.builder()
+                    .userId(user.getId())
+                    .title("Expense " + i)
+                    .amount(BigDecimal.valueOf(random.nextInt(100_000) + 1, 2))
+                    .expenseType(random.nextInt(5) == 0 ? ExpenseType.INCOME : ExpenseType.EXPENSE)
+                    .categoryId(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .expenseDate(LocalDate.of(2026, 1, 1).plusDays(random.nextInt(300)))
+                    .version(0L)
+                    .build());
+        }
+        mongoTemplate.insertAll(expenses);
+        return expenses;
+    }
+}
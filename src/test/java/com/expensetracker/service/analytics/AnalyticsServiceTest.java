@@ -0,0 +1,142 @@
+package com.expensetracker.service.analytics;
+
+import com.expensetracker.dto.response.AnalyticsSummaryResponse;
+import com.expensetracker.dto.response.CategoryWiseSpendingResponse;
+import com.expensetracker.exception.BadRequestException;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.Money;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseRepositoryCustom.CategoryStats;
+import com.expensetracker.repository.ExpenseRepositoryCustom.TypeCategoryTotal;
+import com.expensetracker.service.category.CategoryCache;
+import com.expensetracker.service.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Analytics responses are assembled from the grouped aggregation results alone.
+ */
+class AnalyticsServiceTest {
+
+    private static final String USER_ID = "user-1";
+
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        when(userService.getCurrentUserId()).thenReturn(USER_ID);
+        CategoryCache categoryCache = mock(CategoryCache.class);
+        when(categoryCache.byId(USER_ID)).thenReturn(Map.of(
+                "food", Category.builder().id("food").name("Food").build(),
+                "rent", Category.builder().id("rent").name("Rent").build()));
+        analyticsService = new AnalyticsService(expenseRepository, categoryCache, userService,
+                mock(MonthlyRollupService.class), mock(DailyRollupService.class));
+    }
+
+    @Test
+    void summaryTotalsTheGroups() {
+        when(expenseRepository.sumByTypeAndCategory(USER_ID)).thenReturn(List.of(
+                total(ExpenseType.EXPENSE, "food", "120.10", 3),
+                total(ExpenseType.EXPENSE, "rent", "900.00", 1),
+                total(ExpenseType.EXPENSE, null, "0.20", 2),
+                total(ExpenseType.INCOME, null, "2500.00", 1),
+                total(ExpenseType.INCOME, "food", "10.00", 1)));
+
+        AnalyticsSummaryResponse summary = analyticsService.getSummary();
+
+        assertThat(summary.getTotalExpenses()).isEqualByComparingTo("1020.30");
+        assertThat(summary.getTotalIncome()).isEqualByComparingTo("2510.00");
+        assertThat(summary.getBalance()).isEqualByComparingTo("1489.70");
+        assertThat(summary.getExpenseCount()).isEqualTo(8);
+        assertThat(summary.getCategoryCount()).isEqualTo(2);
+        assertThat(summary.getExpensesByCategory()).containsOnlyKeys("Food", "Rent", "Uncategorized");
+        assertThat(summary.getExpensesByCategory().get("Food")).isEqualByComparingTo("120.10");
+    }
+
+    @Test
+    void summaryMergesCategoriesThatNoLongerExist() {
+        when(expenseRepository.sumByTypeAndCategory(USER_ID)).thenReturn(List.of(
+                total(ExpenseType.EXPENSE, "deleted-1", "1.00", 1),
+                total(ExpenseType.EXPENSE, "deleted-2", "2.50", 1)));
+
+        AnalyticsSummaryResponse summary = analyticsService.getSummary();
+
+        assertThat(summary.getExpensesByCategory()).containsOnlyKeys("Unknown");
+        assertThat(summary.getExpensesByCategory().get("Unknown")).isEqualByComparingTo("3.50");
+    }
+
+    @Test
+    void summaryOfNoExpensesIsZero() {
+        when(expenseRepository.sumByTypeAndCategory(USER_ID)).thenReturn(List.of());
+
+        AnalyticsSummaryResponse summary = analyticsService.getSummary();
+
+        assertThat(summary.getTotalExpenses()).isEqualByComparingTo("0");
+        assertThat(summary.getBalance()).isEqualByComparingTo("0");
+        assertThat(summary.getExpenseCount()).isZero();
+        assertThat(summary.getExpensesByCategory()).isEmpty();
+    }
+
+    @Test
+    void categoryWiseSpendingIsSortedWithSharesAndAverages() {
+        LocalDate from = LocalDate.of(2026, 10, 1);
+        LocalDate to = LocalDate.of(2026, 10, 31);
+        when(expenseRepository.spendingByCategory(USER_ID, from, to)).thenReturn(List.of(
+                stats("food", "Food", "100.00", 3, "10.00", "60.00"),
+                stats(null, null, "50.00", 1, "50.00", "50.00"),
+                stats("rent", "Rent", "850.00", 1, "850.00", "850.00")));
+
+        CategoryWiseSpendingResponse response = analyticsService.getCategoryWiseSpending(from, to);
+
+        assertThat(response.getTotalSpent()).isEqualByComparingTo("1000.00");
+        assertThat(response.getCategories()).extracting(CategoryWiseSpendingResponse.CategorySpending::getCategoryName)
+                .containsExactly("Rent", "Food", "Uncategorized");
+        CategoryWiseSpendingResponse.CategorySpending food = response.getCategories().get(1);
+        assertThat(food.getPercentage()).isEqualTo(10.0);
+        assertThat(food.getTransactionCount()).isEqualTo(3);
+        assertThat(food.getAverageTransaction()).isEqualByComparingTo("33.33");
+        assertThat(food.getSmallestTransaction()).isEqualByComparingTo("10.00");
+        assertThat(food.getLargestTransaction()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void categoryWiseSpendingOfNoExpensesIsEmpty() {
+        when(expenseRepository.spendingByCategory(USER_ID, null, null)).thenReturn(List.of());
+
+        CategoryWiseSpendingResponse response = analyticsService.getCategoryWiseSpending(null, null);
+
+        assertThat(response.getTotalSpent()).isEqualByComparingTo("0");
+        assertThat(response.getCategories()).isEmpty();
+    }
+
+    @Test
+    void categoryWiseSpendingRejectsAnInvertedRange() {
+        LocalDate date = LocalDate.of(2026, 10, 1);
+
+        assertThatThrownBy(() -> analyticsService.getCategoryWiseSpending(date, date.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static CategoryStats stats(String categoryId, String name, String total, long count,
+                                       String smallest, String largest) {
+        return new CategoryStats(categoryId, name, null, null, Money.of(new BigDecimal(total)), count,
+                Money.of(new BigDecimal(smallest)), Money.of(new BigDecimal(largest)));
+    }
+
+    private static TypeCategoryTotal total(ExpenseType type, String categoryId, String amount, long count) {
+        return new TypeCategoryTotal(type, categoryId, Money.of(new BigDecimal(amount)), count);
+    }
+}
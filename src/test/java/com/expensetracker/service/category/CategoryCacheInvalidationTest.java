@@ -0,0 +1,67 @@
+package com.expensetracker.service.category;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Category changes written straight to Mongo, as another node would, must reach this
+ * node's cache through the change stream rather than only after the TTL.
+ */
+class CategoryCacheInvalidationTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Test
+    void evictsCategoryDeletedOnAnotherNode() throws InterruptedException {
+        String userId = new ObjectId().toHexString();
+        Category category = mongoTemplate.insert(category(userId, "Groceries"));
+        assertThat(categoryCache.findById(userId, category.getId())).isPresent();
+
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(category.getId())), Category.class);
+
+        awaitTrue("the deleted category leaves the cache",
+                () -> categoryCache.findById(userId, category.getId()).isEmpty());
+    }
+
+    @Test
+    void evictsCategoryUpdatedOnAnotherNode() throws InterruptedException {
+        String userId = new ObjectId().toHexString();
+        Category category = mongoTemplate.insert(category(userId, "Travel"));
+        assertThat(categoryCache.findById(userId, category.getId()))
+                .hasValueSatisfying(cached -> assertThat(cached.getName()).isEqualTo("Travel"));
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(category.getId())),
+                new Update().set("name", "Trips"), Category.class);
+
+        awaitTrue("the renamed category is reloaded", () -> categoryCache.findById(userId, category.getId())
+                .map(cached -> cached.getName().equals("Trips"))
+                .orElse(false));
+    }
+
+    @Test
+    void picksUpCategoryCreatedOnAnotherNode() throws InterruptedException {
+        String userId = new ObjectId().toHexString();
+        mongoTemplate.insert(category(userId, "Rent"));
+        assertThat(categoryCache.findAll(userId)).hasSize(1);
+
+        Category created = mongoTemplate.insert(category(userId, "Utilities"));
+
+        awaitTrue("the new category is visible", () -> categoryCache.findById(userId, created.getId()).isPresent());
+    }
+
+    private static Category category(String userId, String name) {
+        return Category.builder()
+                .userId(userId)
+                .name(name)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.expensetracker.service.category;
+
+import com.expensetracker.dto.request.CreateCategoryRequest;
+import com.expensetracker.dto.request.UpdateCategoryRequest;
+import com.expensetracker.dto.response.CategoryResponse;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.CategorySyncJob;
+import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.service.user.DataVersionService;
+import com.expensetracker.service.user.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Local category writes must be visible to the very next read, although reads are served
+ * from the category cache. The repository is an in-memory fake, so no database is needed.
+ */
+class CategoryServiceCacheTest {
+
+    private static final String USER_ID = "user-1";
+
+    private final Map<String, Category> stored = new LinkedHashMap<>();
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findByUserIdOrderByNameAsc(anyString())).thenAnswer(invocation -> stored.values().stream()
+                .filter(category -> category.getUserId().equals(invocation.getArgument(0)))
+                .sorted(Comparator.comparing(Category::getName))
+                .map(CategoryServiceCacheTest::copy)
+                .toList());
+        when(categoryRepository.findByIdAndUserId(anyString(), anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(stored.get(invocation.<String>getArgument(0)))
+                        .filter(category -> category.getUserId().equals(invocation.getArgument(1)))
+                        .map(CategoryServiceCacheTest::copy));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            if (category.getId() == null) {
+                category.setId(new ObjectId().toHexString());
+            }
+            stored.put(category.getId(), copy(category));
+            return category;
+        });
+        doAnswer(invocation -> stored.remove(invocation.<Category>getArgument(0).getId()))
+                .when(categoryRepository).delete(any(Category.class));
+
+        UserService userService = mock(UserService.class);
+        when(userService.getCurrentUserId()).thenReturn(USER_ID);
+        CategorySyncService categorySyncService = mock(CategorySyncService.class);
+        when(categorySyncService.enqueue(anyString(), any(), anyString(), any())).thenReturn(new CategorySyncJob());
+
+        CategoryCache categoryCache = new CategoryCache(categoryRepository, new SimpleMeterRegistry(),
+                Duration.ofHours(1), 100);
+        categoryService = new CategoryService(categoryRepository, userService, categorySyncService, categoryCache,
+                mock(DataVersionService.class));
+    }
+
+    @Test
+    void createdCategoryIsReadBack() {
+        assertThat(categoryService.getAllCategories()).isEmpty();
+
+        CategoryResponse created = categoryService.createCategory(create("Groceries"));
+
+        assertThat(categoryService.getAllCategories()).extracting(CategoryResponse::getName).containsExactly("Groceries");
+        assertThat(categoryService.getCategoryById(created.getId()).getName()).isEqualTo("Groceries");
+    }
+
+    @Test
+    void updatedCategoryIsReadBack() {
+        CategoryResponse created = categoryService.createCategory(create("Travel"));
+        assertThat(categoryService.getCategoryById(created.getId()).getName()).isEqualTo("Travel");
+
+        categoryService.updateCategory(created.getId(), UpdateCategoryRequest.builder().name("Trips").build());
+
+        assertThat(categoryService.getCategoryById(created.getId()).getName()).isEqualTo("Trips");
+        assertThat(categoryService.getAllCategories()).extracting(CategoryResponse::getName).containsExactly("Trips");
+    }
+
+    @Test
+    void deletedCategoryIsGone() {
+        CategoryResponse created = categoryService.createCategory(create("Rent"));
+        assertThat(categoryService.getAllCategories()).hasSize(1);
+
+        categoryService.deleteCategory(created.getId());
+
+        assertThat(categoryService.getAllCategories()).isEmpty();
+    }
+
+    @Test
+    void mergedSourceIsGone() {
+        CategoryResponse source = categoryService.createCategory(create("Cafe"));
+        CategoryResponse target = categoryService.createCategory(create("Food"));
+        assertThat(categoryService.getAllCategories()).hasSize(2);
+
+        categoryService.mergeCategory(source.getId(), target.getId());
+
+        assertThat(categoryService.getAllCategories()).extracting(CategoryResponse::getName).containsExactly("Food");
+    }
+
+    private static CreateCategoryRequest create(String name) {
+        return CreateCategoryRequest.builder().name(name).build();
+    }
+
+    private static Category copy(Category category) {
+        return Category.builder()
+                .id(category.getId())
+                .userId(category.getUserId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .color(category.getColor())
+                .icon(category.getIcon())
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.dto.request.BatchExpenseRequest;
+import com.expensetracker.dto.request.UpdateExpenseRequest;
+import com.expensetracker.dto.response.BatchExpenseResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Batch items must report what the bulk write actually did to their target, including
+ * targets that another request changes between the snapshot read and the write.
+ */
+class ExpenseBatchTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @SpyBean
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    void updateStoresDerivedFieldsInTheSameWrite() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+
+        BatchExpenseResponse response = expenseService.executeBatch(batch(update(expense.getId(), "Train ticket")));
+
+        assertThat(response.getResults()).extracting(BatchExpenseResponse.ItemResult::getStatus)
+                .containsExactly(BatchExpenseResponse.ItemStatus.UPDATED);
+        Expense stored = mongoTemplate.findById(expense.getId(), Expense.class);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(stored.getSearchTerms()).contains("train", "ticket").doesNotContain("coffee");
+    }
+
+    @Test
+    void targetDeletedAfterSnapshotIsNotFound() {
+        User user = signInNewUser();
+        Expense deleted = insertExpense(user, "Coffee");
+        Expense kept = insertExpense(user, "Lunch");
+        afterSnapshot(() -> mongoTemplate.remove(byId(deleted), Expense.class));
+
+        BatchExpenseResponse response = expenseService.executeBatch(batch(
+                update(deleted.getId(), "Tea"), update(kept.getId(), "Dinner")));
+
+        assertThat(response.getResults()).extracting(BatchExpenseResponse.ItemResult::getStatus)
+                .containsExactly(BatchExpenseResponse.ItemStatus.NOT_FOUND, BatchExpenseResponse.ItemStatus.UPDATED);
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(mongoTemplate.findById(kept.getId(), Expense.class).getTitle()).isEqualTo("Dinner");
+    }
+
+    @Test
+    void targetModifiedAfterSnapshotIsConflict() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+        afterSnapshot(() -> mongoTemplate.updateFirst(byId(expense),
+                new Update().set("title", "Espresso").inc("version", 1), Expense.class));
+
+        BatchExpenseResponse response = expenseService.executeBatch(batch(update(expense.getId(), "Tea")));
+
+        assertThat(response.getResults()).extracting(BatchExpenseResponse.ItemResult::getStatus)
+                .containsExactly(BatchExpenseResponse.ItemStatus.CONFLICT);
+        assertThat(mongoTemplate.findById(expense.getId(), Expense.class).getTitle()).isEqualTo("Espresso");
+    }
+
+    @Test
+    void deleteOfTargetModifiedAfterSnapshotIsConflict() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+        afterSnapshot(() -> mongoTemplate.updateFirst(byId(expense), new Update().inc("version", 1), Expense.class));
+
+        BatchExpenseResponse response = expenseService.executeBatch(batch(BatchExpenseRequest.Operation.builder()
+                .op(BatchExpenseRequest.OperationType.DELETE)
+                .id(expense.getId())
+                .build()));
+
+        assertThat(response.getResults()).extracting(BatchExpenseResponse.ItemResult::getStatus)
+                .containsExactly(BatchExpenseResponse.ItemStatus.CONFLICT);
+        assertThat(mongoTemplate.findById(expense.getId(), Expense.class)).isNotNull();
+    }
+
+    /**
+     * Run {@code concurrentWrite} right after the batch has read its snapshots.
+     */
+    private void afterSnapshot(Runnable concurrentWrite) {
+        doAnswer(invocation -> {
+            Object snapshots = invocation.callRealMethod();
+            concurrentWrite.run();
+            return snapshots;
+        }).when(expenseRepository).findSnapshots(anyString(), any());
+    }
+
+    private Expense insertExpense(User user, String title) {
+        return mongoTemplate.insert(Expense.builder()
+                .userId(user.getId())
+                .title(title)
+                .amount(new BigDecimal("4.50"))
+                .expenseType(ExpenseType.EXPENSE)
+                .expenseDate(LocalDate.now())
+                .version(0L)
+                .build());
+    }
+
+    private static BatchExpenseRequest.Operation update(String id, String title) {
+        return BatchExpenseRequest.Operation.builder()
+                .op(BatchExpenseRequest.OperationType.UPDATE)
+                .id(id)
+                .changes(UpdateExpenseRequest.builder().title(title).build())
+                .build();
+    }
+
+    private static BatchExpenseRequest batch(BatchExpenseRequest.Operation... operations) {
+        return BatchExpenseRequest.builder().operations(List.of(operations)).build();
+    }
+
+    private static Query byId(Expense expense) {
+        return Query.query(Criteria.where("_id").is(expense.getId()));
+    }
+}
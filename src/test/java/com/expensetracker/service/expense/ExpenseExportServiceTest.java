@@ -0,0 +1,130 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.exception.BadRequestException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.service.user.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports are written row by row from the repository stream, compressed only when asked.
+ */
+class ExpenseExportServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private ExpenseExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        when(userService.getCurrentUserId()).thenReturn(USER_ID);
+        exportService = new ExpenseExportService(expenseRepository, userService, objectMapper);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        givenExpenses(3);
+
+        String[] lines = new String(export(ExportFormat.NDJSON, false), StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo("e0");
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(first.get("expenseDate").asText()).isEqualTo("2026-10-01");
+    }
+
+    @Test
+    void writesCsvWithHeaderAndNeutralizedFormulas() throws IOException {
+        Expense formula = expense(0);
+        formula.setTitle("=HYPERLINK(\"x\")");
+        when(expenseRepository.streamByUserIdAndDateRange(eq(USER_ID), any(), any())).thenReturn(Stream.of(formula));
+
+        String[] lines = new String(export(ExportFormat.CSV, false), StandardCharsets.UTF_8).split("\r\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,expenseDate,title,amount");
+        assertThat(lines[1]).startsWith("e0,2026-10-01,\"'=HYPERLINK(\"\"x\"\")\",12.50,EXPENSE");
+    }
+
+    @Test
+    void gzipBodyInflatesToThePlainBodyAndIsSmaller() throws IOException {
+        givenExpenses(5_000);
+        byte[] plain = export(ExportFormat.NDJSON, false);
+        givenExpenses(5_000);
+        byte[] compressed = export(ExportFormat.NDJSON, true);
+
+        assertThat(compressed[0]).isEqualTo((byte) 0x1f);
+        assertThat(compressed[1]).isEqualTo((byte) 0x8b);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+        assertThat(compressed.length).isLessThan(plain.length / 5);
+    }
+
+    @Test
+    void closesTheRepositoryStreamWhenDone() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(expenseRepository.streamByUserIdAndDateRange(eq(USER_ID), any(), any()))
+                .thenReturn(LongStream.range(0, 10).mapToObj(ExpenseExportServiceTest::expense)
+                        .onClose(() -> closed.set(true)));
+
+        export(ExportFormat.CSV, true);
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void rejectsAnInvertedRange() {
+        assertThatThrownBy(() -> exportService.export(ExportFormat.CSV, DATE, DATE.minusDays(1), false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private byte[] export(ExportFormat format, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, null, null, gzip).writeTo(out);
+        return out.toByteArray();
+    }
+
+    private void givenExpenses(int count) {
+        when(expenseRepository.streamByUserIdAndDateRange(eq(USER_ID), any(), any()))
+                .thenReturn(LongStream.range(0, count).mapToObj(ExpenseExportServiceTest::expense));
+    }
+
+    private static Expense expense(long index) {
+        return Expense.builder()
+                .id("e" + index)
+                .userId(USER_ID)
+                .title("Coffee")
+                .amount(new BigDecimal("12.50"))
+                .expenseType(ExpenseType.EXPENSE)
+                .expenseDate(DATE)
+                .build();
+    }
+}
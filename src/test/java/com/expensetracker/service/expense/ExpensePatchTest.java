@@ -0,0 +1,120 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.dto.request.UpdateExpenseRequest;
+import com.expensetracker.exception.ConflictException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A partial update stores the fields derived from the changed ones in the same write.
+ */
+class ExpensePatchTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @SpyBean
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    void titleChangeStoresSearchTermsInTheSameWrite() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+
+        expenseService.patchExpense(expense.getId(), UpdateExpenseRequest.builder().title("Train ticket").build(), 0L);
+
+        Expense stored = mongoTemplate.findById(expense.getId(), Expense.class);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(stored.getSearchTerms()).contains("train", "ticket").doesNotContain("coffee");
+    }
+
+    @Test
+    void recurrenceChangeStoresScheduleInTheSameWrite() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Rent");
+
+        expenseService.patchExpense(expense.getId(), UpdateExpenseRequest.builder()
+                .recurring(true)
+                .recurringFrequency("MONTHLY")
+                .build(), null);
+
+        Expense stored = mongoTemplate.findById(expense.getId(), Expense.class);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(stored.getNextDueDate()).isNotNull();
+        assertThat(stored.getRecurringShard()).isNotNull();
+    }
+
+    @Test
+    void staleExpectedVersionIsConflict() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+        afterRead(() -> mongoTemplate.updateFirst(byId(expense), new Update().inc("version", 1), Expense.class));
+
+        assertThatThrownBy(() -> expenseService.patchExpense(expense.getId(),
+                UpdateExpenseRequest.builder().title("Tea").build(), 0L))
+                .isInstanceOf(ConflictException.class);
+        assertThat(mongoTemplate.findById(expense.getId(), Expense.class).getTitle()).isEqualTo("Coffee");
+    }
+
+    @Test
+    void writeThatLostARaceIsRetriedWithoutExpectedVersion() {
+        User user = signInNewUser();
+        Expense expense = insertExpense(user, "Coffee");
+        afterRead(() -> mongoTemplate.updateFirst(byId(expense),
+                new Update().set("notes", "oat milk").inc("version", 1), Expense.class));
+
+        expenseService.patchExpense(expense.getId(), UpdateExpenseRequest.builder().title("Tea").build(), null);
+
+        Expense stored = mongoTemplate.findById(expense.getId(), Expense.class);
+        assertThat(stored.getVersion()).isEqualTo(2L);
+        assertThat(stored.getTitle()).isEqualTo("Tea");
+        assertThat(stored.getSearchTerms()).contains("tea", "oat", "milk");
+    }
+
+    /**
+     * Run {@code concurrentWrite} once, right after the patch has read the expense.
+     */
+    private void afterRead(Runnable concurrentWrite) {
+        AtomicBoolean done = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object expense = invocation.callRealMethod();
+            if (done.compareAndSet(false, true)) {
+                concurrentWrite.run();
+            }
+            return expense;
+        }).when(expenseRepository).findByIdAndUserId(anyString(), anyString());
+    }
+
+    private Expense insertExpense(User user, String title) {
+        return mongoTemplate.insert(Expense.builder()
+                .userId(user.getId())
+                .title(title)
+                .amount(new BigDecimal("4.50"))
+                .expenseType(ExpenseType.EXPENSE)
+                .expenseDate(LocalDate.now())
+                .version(0L)
+                .build());
+    }
+
+    private static Query byId(Expense expense) {
+        return Query.query(Criteria.where("_id").is(expense.getId()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.expensetracker.service.expense;
+
+import com.expensetracker.dto.response.ExpenseResponse;
+import com.expensetracker.dto.response.PagedResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseType;
+import com.expensetracker.model.User;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import com.expensetracker.util.SearchTokenizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Text search ranks title matches first, pages without gaps or repeats, and expands a
+ * trailing partial word to the user's own terms.
+ */
+class ExpenseTextSearchTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Test
+    void titleMatchesRankAboveNoteMatches() {
+        User user = signInNewUser();
+        insertExpense(user, "Groceries", "picked up coffee on the way");
+        insertExpense(user, "Coffee", null);
+
+        List<ExpenseResponse> results = expenseService.textSearchExpenses("coffee ", null, 10, null).getContent();
+
+        assertThat(results).extracting(ExpenseResponse::getTitle).containsExactly("Coffee", "Groceries");
+    }
+
+    @Test
+    void pagesCoverEveryMatchOnce() {
+        User user = signInNewUser();
+        for (int i = 0; i < 7; i++) {
+            insertExpense(user, "Taxi " + i, i % 2 == 0 ? "taxi to the airport" : null);
+        }
+        insertExpense(user, "Rent", null);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PagedResponse<ExpenseResponse> page = expenseService.textSearchExpenses("taxi ", cursor, 3, null);
+            page.getContent().forEach(expense -> seen.add(expense.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void trailingPartialWordMatchesByPrefix() {
+        User user = signInNewUser();
+        insertExpense(user, "Coffee", null);
+        insertExpense(user, "Cinema", null);
+
+        assertThat(expenseService.textSearchExpenses("cof", null, 10, null).getContent())
+                .extracting(ExpenseResponse::getTitle).containsExactly("Coffee");
+        assertThat(expenseService.textSearchExpenses("cof ", null, 10, null).getContent()).isEmpty();
+    }
+
+    @Test
+    void onlyTheCurrentUsersExpensesMatch() {
+        User other = signInNewUser();
+        insertExpense(other, "Coffee", null);
+        User user = signInNewUser();
+        insertExpense(user, "Coffee beans", null);
+
+        assertThat(expenseService.textSearchExpenses("coffee", null, 10, null).getContent())
+                .extracting(ExpenseResponse::getTitle).containsExactly("Coffee beans");
+    }
+
+    private void insertExpense(User user, String title, String notes) {
+        mongoTemplate.insert(Expense.builder()
+                .userId(user.getId())
+                .title(title)
+                .notes(notes)
+                .searchTerms(SearchTokenizer.tokenize(title, notes))
+                .amount(new BigDecimal("4.50"))
+                .expenseType(ExpenseType.EXPENSE)
+                .expenseDate(LocalDate.now())
+                .version(0L)
+                .build());
+    }
+}
@@ -0,0 +1,74 @@
+package com.expensetracker.service.idempotency;
+
+import com.expensetracker.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Only requests sharing an idempotency key may wait on each other.
+ */
+class IdempotencyServiceLockTest {
+
+    private static final Duration NO_WAIT = Duration.ZERO;
+
+    private final IdempotencyService idempotencyService = new IdempotencyService(
+            mock(IdempotencyRecordRepository.class), mock(MongoTemplate.class), new SimpleMeterRegistry(),
+            Duration.ofHours(24), Duration.ofMinutes(2), Duration.ofMinutes(10), 100);
+
+    @Test
+    void differentKeysDoNotContend() throws Exception {
+        assertThat(idempotencyService.tryLock("user:a", NO_WAIT)).isTrue();
+        try {
+            assertThat(lockFromAnotherThread("user:b")).isTrue();
+        } finally {
+            idempotencyService.unlock("user:a");
+        }
+    }
+
+    @Test
+    void sameKeyIsRejectedWhileInFlight() throws Exception {
+        assertThat(idempotencyService.tryLock("user:a", NO_WAIT)).isTrue();
+        try {
+            assertThat(lockFromAnotherThread("user:a")).isFalse();
+        } finally {
+            idempotencyService.unlock("user:a");
+        }
+        assertThat(lockFromAnotherThread("user:a")).isTrue();
+    }
+
+    @Test
+    void failedAttemptDoesNotLeaveTheKeyLocked() throws Exception {
+        assertThat(idempotencyService.tryLock("user:a", NO_WAIT)).isTrue();
+        assertThat(lockFromAnotherThread("user:a")).isFalse();
+        idempotencyService.unlock("user:a");
+
+        assertThat(idempotencyService.tryLock("user:a", NO_WAIT)).isTrue();
+        idempotencyService.unlock("user:a");
+    }
+
+    /**
+     * Lock and release the key on another thread, reporting whether it was free.
+     */
+    private boolean lockFromAnotherThread(String key) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                boolean acquired = idempotencyService.tryLock(key, NO_WAIT);
+                if (acquired) {
+                    idempotencyService.unlock(key);
+                }
+                return acquired;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensetracker.service.idempotency;
+
+import com.expensetracker.model.IdempotencyRecord;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Completing a key only ever updates the request's own, still live, claim.
+ */
+class IdempotencyServiceTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void completesALiveClaim() {
+        IdempotencyRecord record = idempotencyService.begin(newKey(), "hash").orElseThrow();
+        record.setResponseStatus(201);
+
+        assertThat(idempotencyService.complete(record)).isTrue();
+
+        IdempotencyRecord stored = mongoTemplate.findById(record.getId(), IdempotencyRecord.class);
+        assertThat(stored.isCompleted()).isTrue();
+        assertThat(stored.getResponseStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void doesNotResurrectAReleasedClaim() {
+        IdempotencyRecord record = idempotencyService.begin(newKey(), "hash").orElseThrow();
+        idempotencyService.release(record);
+
+        assertThat(idempotencyService.complete(record)).isFalse();
+        assertThat(mongoTemplate.findById(record.getId(), IdempotencyRecord.class)).isNull();
+    }
+
+    @Test
+    void doesNotCompleteAnExpiredClaim() {
+        IdempotencyRecord record = idempotencyService.begin(newKey(), "hash").orElseThrow();
+        mongoTemplate.updateFirst(byId(record), new Update().set("expiresAt", Instant.now().minusSeconds(1)),
+                IdempotencyRecord.class);
+
+        assertThat(idempotencyService.complete(record)).isFalse();
+        assertThat(mongoTemplate.findById(record.getId(), IdempotencyRecord.class).isCompleted()).isFalse();
+    }
+
+    @Test
+    void leavesALaterClaimOnTheSameKeyAlone() {
+        IdempotencyRecord stale = idempotencyService.begin(newKey(), "hash").orElseThrow();
+        mongoTemplate.remove(byId(stale), IdempotencyRecord.class);
+        IdempotencyRecord later = idempotencyService.begin(stale.getId(), "other").orElseThrow();
+        later.setCreatedAt(stale.getCreatedAt().plusMillis(1));
+        mongoTemplate.updateFirst(byId(later), new Update().set("createdAt", later.getCreatedAt()),
+                IdempotencyRecord.class);
+
+        assertThat(idempotencyService.complete(stale)).isFalse();
+        idempotencyService.release(stale);
+
+        IdempotencyRecord stored = mongoTemplate.findById(stale.getId(), IdempotencyRecord.class);
+        assertThat(stored.getRequestHash()).isEqualTo("other");
+        assertThat(stored.isCompleted()).isFalse();
+    }
+
+    private static String newKey() {
+        return "user:" + new ObjectId().toHexString();
+    }
+
+    private static Query byId(IdempotencyRecord record) {
+        return Query.query(Criteria.where("_id").is(record.getId()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.expensetracker.service.user;
+
+import com.expensetracker.model.User;
+import com.expensetracker.service.auth.TokenVersionService;
+import com.expensetracker.support.EmbeddedMongoIntegrationTest;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User changes written straight to Mongo, as another node would, must evict this
+ * node's cached user and token version through the change stream.
+ */
+class UserChangeStreamEvictionTest extends EmbeddedMongoIntegrationTest {
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Test
+    void evictsUserUpdatedOnAnotherNode() throws InterruptedException {
+        User user = mongoTemplate.insert(user("Ada"));
+        assertThat(userCache.findById(user.getId())).get().extracting(User::getFirstName).isEqualTo("Ada");
+
+        mongoTemplate.updateFirst(byId(user), new Update().set("firstName", "Grace"), User.class);
+
+        awaitTrue("the cached user has the new name",
+                () -> "Grace".equals(userCache.findById(user.getId()).map(User::getFirstName).orElse(null)));
+    }
+
+    @Test
+    void revokesTokensOnVersionBumpFromAnotherNode() throws InterruptedException {
+        User user = mongoTemplate.insert(user("Ada"));
+        assertThat(tokenVersionService.isCurrent(user.getId(), 0L)).isTrue();
+
+        mongoTemplate.updateFirst(byId(user), new Update().inc("tokenVersion", 1L), User.class);
+
+        awaitTrue("tokens issued before the bump are rejected",
+                () -> !tokenVersionService.isCurrent(user.getId(), 0L));
+    }
+
+    @Test
+    void evictsUserDeletedOnAnotherNode() throws InterruptedException {
+        User user = mongoTemplate.insert(user("Ada"));
+        assertThat(userCache.findById(user.getId())).isPresent();
+
+        mongoTemplate.remove(byId(user), User.class);
+
+        awaitTrue("the deleted user leaves the cache", () -> userCache.findById(user.getId()).isEmpty());
+    }
+
+    private static User user(String firstName) {
+        String name = "user-" + new ObjectId().toHexString();
+        return User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("{noop}secret")
+                .firstName(firstName)
+                .build();
+    }
+
+    private static Query byId(User user) {
+        return Query.query(Criteria.where("_id").is(user.getId()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.expensetracker.support;
+
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.service.auth.AuthenticatedUser;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base for tests against an embedded single-node replica set, so change streams work.
+ *
+ * The mongod binary is downloaded on first use and cached under ~/.embedmongo/archives; the
+ * tests are skipped where neither a cached archive nor the download server is available.
+ */
+@SpringBootTest(properties = {
+        "de.flapdoodle.mongodb.embedded.version=6.0.5",
+        "de.flapdoodle.mongodb.embedded.storage.repl-set-name=rs0",
+        "spring.data.mongodb.uri=mongodb://localhost/expense_tracker_test",
+        "app.change-streams.enabled=true"
+})
+public abstract class EmbeddedMongoIntegrationTest {
+
+    private static final Duration CHANGE_STREAM_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    protected MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void requireEmbeddedMongo() {
+        assumeTrue(embeddedMongoAvailable(), "embedded MongoDB is neither cached nor downloadable");
+    }
+
+    private static boolean embeddedMongoAvailable() {
+        Path archives = Path.of(System.getProperty("user.home"), ".embedmongo", "archives");
+        if (Files.isDirectory(archives)) {
+            try (Stream<Path> files = Files.walk(archives)) {
+                if (files.anyMatch(Files::isRegularFile)) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // fall through to the download check
+            }
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("fastdl.mongodb.org", 443), 2000);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Store a new user and authenticate the current thread as that user, as the JWT filter would.
+     */
+    protected User signInNewUser() {
+        String name = "user-" + new ObjectId().toHexString();
+        User user = mongoTemplate.insert(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("{noop}secret")
+                .firstName("Test")
+                .build());
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), Role.USER, 0L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return user;
+    }
+
+    /**
+     * Wait for a change stream event to take effect.
+     */
+    protected static void awaitTrue(String description, BooleanSupplier condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(CHANGE_STREAM_TIMEOUT);
+        while (!condition.getAsBoolean()) {
+            if (Instant.now().isAfter(deadline)) {
+                fail("Timed out waiting until " + description);
+            }
+            Thread.sleep(50);
+        }
+    }
+}
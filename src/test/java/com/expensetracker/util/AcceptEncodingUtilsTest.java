@@ -0,0 +1,34 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingUtilsTest {
+
+    @Test
+    void acceptsListedGzip() {
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.acceptsGzip("deflate, GZIP;q=0.5, br")).isTrue();
+    }
+
+    @Test
+    void refusesGzipWithZeroQuality() {
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("br, gzip; q=0.0")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("*, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void fallsBackToWildcard() {
+        assertThat(AcceptEncodingUtils.acceptsGzip("*")).isTrue();
+        assertThat(AcceptEncodingUtils.acceptsGzip("br, *;q=0")).isFalse();
+    }
+
+    @Test
+    void refusesGzipWhenNotOffered() {
+        assertThat(AcceptEncodingUtils.acceptsGzip(null)).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("identity")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("x-gzipped, notgzip")).isFalse();
+    }
+}
@@ -0,0 +1,26 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvUtilsTest {
+
+    @Test
+    void quotesDelimitersQuotesAndLineBreaks() {
+        assertThat(CsvUtils.escape("plain")).isEqualTo("plain");
+        assertThat(CsvUtils.escape("a,b")).isEqualTo("\"a,b\"");
+        assertThat(CsvUtils.escape("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(CsvUtils.escape(null)).isEmpty();
+    }
+
+    @Test
+    void neutralizesFormulas() {
+        assertThat(CsvUtils.escape("=SUM(A1:A9)")).isEqualTo("'=SUM(A1:A9)");
+        assertThat(CsvUtils.escape("+1")).isEqualTo("'+1");
+        assertThat(CsvUtils.escape("-2")).isEqualTo("'-2");
+        assertThat(CsvUtils.escape("@cmd")).isEqualTo("'@cmd");
+        assertThat(CsvUtils.escape("=HYPERLINK(\"x\",\"y\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\",\"\"y\"\")\"");
+        assertThat(CsvUtils.escape("a=b")).isEqualTo("a=b");
+    }
+}
@@ -0,0 +1,43 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagUtilsTest {
+
+    @Test
+    void dataTagsOfDifferentUsersNeverMatch() {
+        String alice = ETagUtils.toDataETag("65f1c0a1e4b0a1b2c3d4e5f6", 5);
+        String bob = ETagUtils.toDataETag("65f1c0a1e4b0a1b2c3d4e5f7", 5);
+
+        assertThat(alice).isNotEqualTo(bob).startsWith("W/\"");
+        assertThat(ETagUtils.matchesIfNoneMatch(alice, bob)).isFalse();
+        assertThat(ETagUtils.matchesIfNoneMatch(alice, ETagUtils.toDataETag("65f1c0a1e4b0a1b2c3d4e5f6", 5))).isTrue();
+    }
+
+    @Test
+    void qualifiedTagDiffersFromPlainTag() {
+        String plain = ETagUtils.toDataETag("user", 3);
+        String qualified = ETagUtils.toDataETag("user", 3, "2026-10");
+
+        assertThat(ETagUtils.matchesIfNoneMatch(plain, qualified)).isFalse();
+    }
+
+    @Test
+    void validatedResponsesArePrivateAndVaryByCredentials() {
+        ResponseEntity<Void> ok = ETagUtils.ok("W/\"x\"").build();
+        ResponseEntity<Void> notModified = ETagUtils.notModified("W/\"x\"");
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        for (ResponseEntity<Void> response : new ResponseEntity[]{ok, notModified}) {
+            HttpHeaders headers = response.getHeaders();
+            assertThat(headers.getETag()).isEqualTo("W/\"x\"");
+            assertThat(headers.getVary()).contains(HttpHeaders.AUTHORIZATION);
+            assertThat(headers.getCacheControl()).contains("private").contains("no-cache");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.expensetracker.util;
+
+import com.expensetracker.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A token's signature is verified once; later requests with it are served from the cache.
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "YourSuperSecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLong";
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(60_000);
+        parser = mock(JwtParser.class, delegatesTo(ReflectionTestUtils.getField(jwtUtil, "jwtParser")));
+        ReflectionTestUtils.setField(jwtUtil, "jwtParser", parser);
+    }
+
+    @Test
+    void verifiesEachTokenOnce() {
+        String token = jwtUtil.generateToken(user("ada"));
+
+        for (int i = 0; i < 5; i++) {
+            Claims claims = jwtUtil.resolveClaims(token);
+            assertThat(claims.getSubject()).isEqualTo("ada");
+            assertThat(claims.get(JwtUtil.CLAIM_USER_ID, String.class)).isEqualTo("id-ada");
+        }
+
+        verify(parser, times(1)).parseSignedClaims(anyString());
+    }
+
+    @Test
+    void distinctTokensAreVerifiedSeparately() {
+        String ada = jwtUtil.generateToken(user("ada"));
+        String grace = jwtUtil.generateToken(user("grace"));
+
+        assertThat(jwtUtil.extractUsername(ada)).isEqualTo("ada");
+        assertThat(jwtUtil.extractUsername(grace)).isEqualTo("grace");
+        assertThat(jwtUtil.extractUsername(ada)).isEqualTo("ada");
+
+        verify(parser, times(2)).parseSignedClaims(anyString());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        String token = jwtUtil.generateToken(user("ada"));
+        assertThat(jwtUtil.resolveClaims(token)).isNotNull();
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtUtil.resolveClaims(tampered)).isNull();
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndNotCached() {
+        JwtUtil expiring = jwtUtil(-1_000);
+        String token = expiring.generateToken(user("ada"));
+
+        assertThat(expiring.resolveClaims(token)).isNull();
+        assertThat(expiring.resolveClaims(token)).isNull();
+    }
+
+    private static JwtUtil jwtUtil(long expirationMillis) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 100L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .id("id-" + username)
+                .username(username)
+                .email(username + "@example.com")
+                .password("{noop}secret")
+                .build();
+    }
+}
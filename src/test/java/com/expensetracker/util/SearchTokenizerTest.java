@@ -0,0 +1,23 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTokenizerTest {
+
+    @Test
+    void splitsOnNonWordCharactersAndLowercases() {
+        assertThat(SearchTokenizer.tokenize("Coffee @ Café-Bar, 2x")).containsExactly("coffee", "café", "bar", "2x");
+    }
+
+    @Test
+    void dropsShortTokensAndDuplicatesAcrossTexts() {
+        assertThat(SearchTokenizer.tokenize("a coffee", null, "Coffee beans")).containsExactly("coffee", "beans");
+    }
+
+    @Test
+    void truncatesLongTokens() {
+        assertThat(SearchTokenizer.tokenize("x".repeat(60))).containsExactly("x".repeat(40));
+    }
+}
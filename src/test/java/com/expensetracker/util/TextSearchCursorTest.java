@@ -0,0 +1,32 @@
+package com.expensetracker.util;
+
+import com.expensetracker.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TextSearchCursorTest {
+
+    @Test
+    void roundTripsTheExactScore() {
+        TextSearchCursor cursor = new TextSearchCursor(0.1 + 0.2, new ObjectId());
+
+        TextSearchCursor decoded = TextSearchCursor.decode(cursor.encode());
+
+        assertThat(Double.doubleToLongBits(decoded.score())).isEqualTo(Double.doubleToLongBits(0.1 + 0.2));
+        assertThat(decoded.id()).isEqualTo(cursor.id());
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertThat(TextSearchCursor.decode(null)).isNull();
+        assertThat(TextSearchCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsAMalformedCursor() {
+        assertThatThrownBy(() -> TextSearchCursor.decode("not-a-cursor")).isInstanceOf(BadRequestException.class);
+    }
+}